@@ -21,7 +21,7 @@ export const routes: Routes = [
   { path: '', component: Home },
   { path: 'products', component: Products },
   { path: 'products/:id', component: ProductDetail },
-  { path: 'cart', component: Cart, canActivate: [AuthGuard] },
+  { path: 'cart', component: Cart },
   { path: 'wishlist', component: Wishlist, canActivate: [AuthGuard] },
   { path: 'login', component: Login },
   { path: 'register', component: Register },
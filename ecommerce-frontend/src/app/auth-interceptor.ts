@@ -3,14 +3,17 @@ import { HttpInterceptorFn } from '@angular/common/http';
 export const authInterceptor: HttpInterceptorFn = (req, next) => {
   const token = localStorage.getItem('token');
   const isAuthEndpoint = req.url.includes('/login') || req.url.includes('/register');
+  // send cookies so an anonymous cart (guest cart cookie) follows the browser, including into login/register
+  const isCartOrAuth = req.url.includes('/api/cart') || isAuthEndpoint;
 
   if (token && !isAuthEndpoint) {
     const authReq = req.clone({
       setHeaders: {
         Authorization: `Bearer ${token}`,
       },
+      withCredentials: isCartOrAuth,
     });
     return next(authReq);
   }
-  return next(req);
+  return next(isCartOrAuth ? req.clone({ withCredentials: true }) : req);
 };
@@ -150,10 +150,7 @@ export class ProductCard implements OnInit {
     console.log('🔐 [ProductCard] LocalStorage user:', localStorage.getItem('user'));
     
     if (!token) {
-      console.error('❌ [ProductCard] NO TOKEN - Redirecting to login');
-      alert('Please login first to add items to cart');
-      this.router.navigate(['/login']);
-      return;
+      console.log('🛒 [ProductCard] No token - adding to guest cart (merged into the account at login)');
     }
     
     console.log('🛒 ========================================');
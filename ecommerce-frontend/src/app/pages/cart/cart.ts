@@ -13,6 +13,7 @@ import { RouterModule } from '@angular/router';
 export class Cart implements OnInit {
   cartItems: any[] = [];
   total: number = 0;
+  itemCount: number = 0;
 
   constructor(
     private cartService: CartService,
@@ -27,7 +28,9 @@ export class Cart implements OnInit {
     this.cartService.getCart().subscribe({
       next: (data) => {
         this.cartItems = data.items || [];
-        this.calculateTotal();
+        // totals are computed by the server, the same way checkout computes them
+        this.total = data.subtotal ?? 0;
+        this.itemCount = data.itemCount ?? 0;
         this.cdr.detectChanges();
       },
       error: (err) => {
@@ -42,6 +45,7 @@ export class Cart implements OnInit {
 
   calculateTotal(): void {
     this.total = this.cartItems.reduce((sum, item) => sum + (item.price * item.quantity), 0);
+    this.itemCount = this.cartItems.reduce((count, item) => count + item.quantity, 0);
   }
 
   incrementQuantity(item: any): void {
@@ -0,0 +1,78 @@
+package com.example.demo.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * Monotonic version of the public catalog (products and categories).
+ *
+ * Main concept:
+ * - Bumped after every committed product or category mutation. Any two reads that observe the
+ *   same {@link #etag()} saw the same catalog, which makes it a cheap validator for HTTP caching.
+ * - The tag also carries the boot time, so tags issued before a restart never match.
+ * - Catalog listeners are ordered explicitly around the bump: caches and in-memory indexes run
+ *   at {@link #APPLY_ORDER}, the bump at {@link #BUMP_ORDER}, and client notifications at
+ *   {@link #NOTIFY_ORDER}. Once a new version is visible the caches, snapshot and indexes already
+ *   reflect the change, and a client refetching on a notification gets the new tag.
+ */
+@Component
+public class CatalogVersion {
+
+    /** Order of the listeners that apply a catalog change to caches and in-memory indexes. */
+    public static final int APPLY_ORDER = 0;
+    /** Order of the version bump. */
+    public static final int BUMP_ORDER = 100;
+    /** Order of the listeners that tell clients about a catalog change. */
+    public static final int NOTIFY_ORDER = 200;
+
+    private final String bootEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /** Strong entity tag for the current version, quoted as required in the ETag header. */
+    public String etag() {
+        return "\"" + bootEpoch + "-" + version.get() + "\"";
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(BUMP_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        version.incrementAndGet();
+    }
+}
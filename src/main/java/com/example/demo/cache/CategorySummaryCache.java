@@ -0,0 +1,163 @@
+package com.example.demo.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.dto.category.CategoryResponse;
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Product;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.CategoryRepository;
+
+/**
+ * In-memory category summaries (id, name, description, product count) for menus and listings.
+ *
+ * Main concept:
+ * - Loaded with one grouped query ({@link CategoryRepository#findAllSummaries}) on first use;
+ *   `Category.products` is never touched.
+ * - Counts are then adjusted incrementally from product events: +1 on create, -1/+1 when a
+ *   product moves between categories, minus the deleted products per category on delete.
+ * - Bulk imports drop the summaries, and they are reloaded after `refresh-seconds` anyway, so
+ *   any drift (e.g. an event racing the initial load) heals on its own.
+ */
+@Slf4j
+@Component
+public class CategorySummaryCache {
+
+    private final CategoryRepository categoryRepository;
+    private final long refreshMillis;
+
+    // guarded by this; null until loaded or after invalidation
+    private TreeMap<Long, CategoryResponse> summaries;
+    private long loadedAt;
+
+    public CategorySummaryCache(CategoryRepository categoryRepository,
+            @Value("${catalog.category-summary.refresh-seconds:600}") long refreshSeconds) {
+        this.categoryRepository = categoryRepository;
+        this.refreshMillis = refreshSeconds * 1000;
+    }
+
+    /** All category summaries ordered by id. */
+    public synchronized List<CategoryResponse> getAll() {
+        List<CategoryResponse> result = new ArrayList<>(load().size());
+        for (CategoryResponse summary : load().values()) {
+            result.add(copy(summary));
+        }
+        return result;
+    }
+
+    /** Summary of one category, or null if it does not exist. */
+    public synchronized CategoryResponse get(Long id) {
+        CategoryResponse summary = load().get(id);
+        return summary != null ? copy(summary) : null;
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (summaries == null) {
+            return;
+        }
+        Product product = event.getProduct();
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        if (event.isCreated()) {
+            adjust(categoryId, 1);
+        } else if (!Objects.equals(event.getPreviousCategoryId(), categoryId)) {
+            adjust(event.getPreviousCategoryId(), -1);
+            adjust(categoryId, 1);
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsDeleted(ProductsDeletedEvent event) {
+        if (summaries == null) {
+            return;
+        }
+        for (Map.Entry<Long, Integer> deleted : event.getDeletedPerCategory().entrySet()) {
+            adjust(deleted.getKey(), -deleted.getValue());
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (summaries == null) {
+            return;
+        }
+        Category category = event.getCategory();
+        CategoryResponse summary = summaries.get(category.getId());
+        if (summary == null) {
+            summaries.put(category.getId(), CategoryResponse.builder()
+                    .id(category.getId())
+                    .name(category.getName())
+                    .description(category.getDescription())
+                    .productCount(0L)
+                    .build());
+        } else {
+            summary.setName(category.getName());
+            summary.setDescription(category.getDescription());
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryDeleted(CategoryDeletedEvent event) {
+        if (summaries != null) {
+            summaries.remove(event.getCategoryId());
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogImported(CatalogImportedEvent event) {
+        summaries = null;
+    }
+
+    /* caller holds the lock */
+    private TreeMap<Long, CategoryResponse> load() {
+        long now = System.currentTimeMillis();
+        if (summaries == null || now - loadedAt >= refreshMillis) {
+            TreeMap<Long, CategoryResponse> loaded = new TreeMap<>();
+            for (CategoryResponse summary : categoryRepository.findAllSummaries()) {
+                loaded.put(summary.getId(), summary);
+            }
+            summaries = loaded;
+            loadedAt = now;
+            log.info("Category summaries loaded: {} categories in {}ms", loaded.size(), System.currentTimeMillis() - now);
+        }
+        return summaries;
+    }
+
+    /* caller holds the lock */
+    private void adjust(Long categoryId, long delta) {
+        CategoryResponse summary = categoryId != null ? summaries.get(categoryId) : null;
+        if (summary != null) {
+            summary.setProductCount(Math.max(0L, summary.getProductCount() + delta));
+        }
+    }
+
+    /* summaries are mutated in place, so callers get copies */
+    private static CategoryResponse copy(CategoryResponse summary) {
+        return CategoryResponse.builder()
+                .id(summary.getId())
+                .name(summary.getName())
+                .description(summary.getDescription())
+                .productCount(summary.getProductCount())
+                .build();
+    }
+}
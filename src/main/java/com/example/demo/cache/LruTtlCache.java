@@ -0,0 +1,160 @@
+package com.example.demo.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+import com.example.demo.dto.admin.CacheStatsResponse;
+
+/**
+ * Small bounded in-process cache with LRU eviction and a per-entry time-to-live.
+ *
+ * Main concept:
+ * - Backed by an access-ordered LinkedHashMap; all operations synchronize on the cache, which is
+ *   fine for the short critical sections involved (loaders run outside the lock).
+ * - Entries expire `ttlMillis` after they were stored; expired entries count as misses.
+ * - Every invalidation bumps a generation counter; a value loaded while an invalidation happened
+ *   is returned to the caller but not stored, so a slow reader cannot re-insert stale data.
+ * - Optionally weighted: with a weigher (e.g. approximate bytes per entry), least recently used
+ *   entries are also evicted while the total weight exceeds `maxWeight`.
+ *
+ * Responsibilities:
+ * - Keep hit / miss / eviction counters so callers can size the cache.
+ */
+public class LruTtlCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long maxWeight;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long generation;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruTtlCache(String name, int maxEntries, long ttlMillis) {
+        this(name, maxEntries, ttlMillis, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Cache bounded both by entry count and by the total of `weigher` over all entries.
+     * The weigher is called once per stored entry, under the cache lock.
+     */
+    public LruTtlCache(String name, int maxEntries, long ttlMillis, long maxWeight, ToLongBiFunction<K, V> weigher) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** Return the cached value, or null on a miss (absent or expired). */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            weight -= entry.weight;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Return the cached value or compute it with `loader` and store it.
+     * A null result from the loader is returned but not cached.
+     */
+    public V getOrLoad(K key, Function<K, V> loader) {
+        long observedGeneration;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            observedGeneration = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == observedGeneration) {
+                    store(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        store(key, value);
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized CacheStatsResponse stats() {
+        long requests = hits + misses;
+        return CacheStatsResponse.builder()
+                .name(name)
+                .size(entries.size())
+                .maxSize(maxEntries)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .hitRate(requests == 0 ? 0.0 : (double) hits / requests)
+                .weight(weigher != null ? weight : null)
+                .maxWeight(weigher != null ? maxWeight : null)
+                .build();
+    }
+
+    /* caller holds the lock */
+    private void store(K key, V value) {
+        long entryWeight = weigher != null ? weigher.applyAsLong(key, value) : 0;
+        Entry<V> previous = entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis, entryWeight));
+        weight += entryWeight - (previous != null ? previous.weight : 0);
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        private final long weight;
+
+        Entry(V value, long expiresAt, long weight) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.cache;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.dto.admin.CacheStatsResponse;
+import com.example.demo.dto.product.ProductResponse;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * Read-through cache of product responses keyed by product id.
+ *
+ * Main concept:
+ * - Holds immutable-by-convention `ProductResponse` snapshots rather than JPA entities, so cached
+ *   values can be shared across requests and never become detached-entity hazards.
+ * - Product mutations invalidate exactly the affected id; category mutations clear everything
+ *   because the category name is denormalized into every cached product.
+ */
+@Component
+public class ProductCache {
+
+    private final LruTtlCache<Long, ProductResponse> cache;
+
+    public ProductCache(
+            @Value("${catalog.product-cache.max-size:10000}") int maxSize,
+            @Value("${catalog.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new LruTtlCache<>("products", maxSize, ttlSeconds * 1000);
+    }
+
+    public ProductResponse get(Long id, Function<Long, ProductResponse> loader) {
+        return cache.getOrLoad(id, loader);
+    }
+
+    /** Return the cached response, or null if it is not cached; never loads. */
+    public ProductResponse peek(Long id) {
+        return cache.get(id);
+    }
+
+    public CacheStatsResponse stats() {
+        return cache.stats();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.getProduct().getId());
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        for (Long productId : event.getProductIds()) {
+            cache.invalidate(productId);
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        cache.invalidateAll();
+    }
+}
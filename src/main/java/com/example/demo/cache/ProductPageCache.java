@@ -0,0 +1,113 @@
+package com.example.demo.cache;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.demo.dto.admin.CacheStatsResponse;
+import com.example.demo.dto.product.ProductResponse;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * Cache of fully serialized product listing pages (UTF-8 JSON bytes).
+ *
+ * Main concept:
+ * - Hot listing pages are requested far more often than the catalog changes, so the JSON is
+ *   encoded once and the bytes are written to the response as-is on later hits.
+ * - Keys include the {@link CatalogVersion}, so bytes rendered before a mutation can never be
+ *   served after it; mutations also drop all entries to release the memory early.
+ * - Only the first {@link #maxCachedPages} pages are cached; deep pages are rare and would only
+ *   push hot pages out.
+ */
+@Component
+public class ProductPageCache {
+
+    private final LruTtlCache<String, byte[]> cache;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final int maxCachedPages;
+
+    public ProductPageCache(CatalogVersion catalogVersion, ObjectMapper objectMapper,
+            @Value("${catalog.page-cache.max-size:256}") int maxSize,
+            @Value("${catalog.page-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${catalog.page-cache.max-pages:5}") int maxCachedPages) {
+        this.cache = new LruTtlCache<>("product-pages", maxSize, ttlSeconds * 1000);
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.maxCachedPages = maxCachedPages;
+    }
+
+    /**
+     * Return the serialized page for the given listing parameters, rendering it with `loader`
+     * on a miss.
+     */
+    public byte[] get(String search, Long categoryId, Pageable pageable, Supplier<Page<ProductResponse>> loader) {
+        if (pageable.isUnpaged() || pageable.getPageNumber() >= maxCachedPages) {
+            return serialize(loader.get());
+        }
+        String key = catalogVersion.current()
+                + "|" + (search == null ? "" : search.trim().toLowerCase(Locale.ROOT))
+                + "|" + (categoryId == null ? "" : categoryId)
+                + "|" + pageable.getPageNumber()
+                + "|" + pageable.getPageSize()
+                + "|" + pageable.getSort();
+        return cache.getOrLoad(key, k -> serialize(loader.get()));
+    }
+
+    public CacheStatsResponse stats() {
+        return cache.stats();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private byte[] serialize(Page<ProductResponse> page) {
+        try {
+            return objectMapper.writeValueAsBytes(page);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to render product page", e);
+        }
+    }
+}
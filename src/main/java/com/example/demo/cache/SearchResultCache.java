@@ -0,0 +1,107 @@
+package com.example.demo.cache;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.admin.CacheStatsResponse;
+
+/**
+ * Cache of product search results as id lists, keyed by a normalized query.
+ *
+ * Main concept:
+ * - Equivalent requests share one entry: the name, already normalized by the caller exactly as
+ *   it is queried, is case-folded like the case-insensitive match; prices lose their scale
+ *   (`10`, `10.0` and `10.00` are the same bound), and the sort is rendered canonically.
+ * - Keys start with the {@link CatalogVersion}; any catalog mutation makes every older entry
+ *   unreachable without scanning the cache. Orphaned entries age out through LRU and TTL.
+ * - Only ids and the total are stored (callers hydrate the page), so entries are small; the
+ *   cache is bounded by entry count and by approximate bytes.
+ */
+@Component
+public class SearchResultCache {
+
+    // object headers, array header and the two fields of Result, roughly
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final LruTtlCache<String, Result> cache;
+    private final CatalogVersion catalogVersion;
+
+    public SearchResultCache(CatalogVersion catalogVersion,
+            @Value("${catalog.search-cache.max-size:2048}") int maxSize,
+            @Value("${catalog.search-cache.max-bytes:4194304}") long maxBytes,
+            @Value("${catalog.search-cache.ttl-seconds:120}") long ttlSeconds) {
+        this.cache = new LruTtlCache<>("search-results", maxSize, ttlSeconds * 1000, maxBytes,
+                (key, result) -> ENTRY_OVERHEAD_BYTES + 2L * key.length() + 8L * result.ids().length);
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Return the cached result for the given search parameters, computing it with `loader` on a miss.
+     */
+    public Result get(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable,
+            Supplier<Result> loader) {
+        if (pageable.isUnpaged()) {
+            return loader.get();
+        }
+        String key = key(name, categoryId, minPrice, maxPrice, pageable);
+        return cache.getOrLoad(key, k -> loader.get());
+    }
+
+    public CacheStatsResponse stats() {
+        return cache.stats();
+    }
+
+    private String key(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        StringBuilder key = new StringBuilder(64);
+        key.append(catalogVersion.current()).append('|');
+        if (name != null) {
+            key.append(name.toLowerCase(Locale.ROOT));
+        }
+        key.append('|');
+        if (categoryId != null) {
+            key.append(categoryId);
+        }
+        key.append('|');
+        if (minPrice != null) {
+            key.append(minPrice.stripTrailingZeros().toPlainString());
+        }
+        key.append('|');
+        if (maxPrice != null) {
+            key.append(maxPrice.stripTrailingZeros().toPlainString());
+        }
+        key.append('|').append(pageable.getPageNumber()).append('|').append(pageable.getPageSize()).append('|');
+        for (Sort.Order order : pageable.getSort()) {
+            key.append(order.getProperty()).append(order.isAscending() ? ":a" : ":d")
+                    .append(order.isIgnoreCase() ? "i" : "").append(',');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Ids of one result page plus the total number of matches.
+     */
+    public static final class Result {
+
+        private final long[] ids;
+        private final long total;
+
+        public Result(long[] ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public long[] ids() {
+            return ids;
+        }
+
+        public long total() {
+            return total;
+        }
+    }
+}
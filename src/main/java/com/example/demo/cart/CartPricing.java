@@ -0,0 +1,92 @@
+package com.example.demo.cart;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Cart totals in minor units (cents).
+ *
+ * Main concept:
+ * - Prices are stored with two decimals, so they convert to `long` cents exactly once per line
+ *   ({@link #toCents}, also used for the prices the catalog snapshot keeps); line totals and
+ *   the cart totals are then plain `long` arithmetic in one loop over parallel arrays.
+ * - The conversion still costs one small BigDecimal per line and dominates the time of a full
+ *   cart total; the loop itself is an order of magnitude cheaper (see CartPricingBenchmark).
+ * - Overflow throws instead of wrapping (`Math.multiplyExact` / `addExact`).
+ * - The cart view and checkout both price through here, so the total a user sees is the total
+ *   they are charged.
+ */
+@Component
+public class CartPricing {
+
+    /**
+     * Price the first `lines` entries of the given arrays.
+     *
+     * @param unitCents unit price of each line in cents
+     * @param quantities quantity of each line
+     * @param lines number of lines to price
+     */
+    public Totals price(long[] unitCents, int[] quantities, int lines) {
+        long[] lineCents = new long[lines];
+        long subtotal = 0;
+        long itemCount = 0;
+        for (int i = 0; i < lines; i++) {
+            lineCents[i] = lineCents(unitCents[i], quantities[i]);
+            subtotal = Math.addExact(subtotal, lineCents[i]);
+            itemCount += quantities[i];
+        }
+        return new Totals(lineCents, subtotal, itemCount);
+    }
+
+    /** Total of one line in cents. */
+    public static long lineCents(long unitCents, int quantity) {
+        return Math.multiplyExact(unitCents, (long) quantity);
+    }
+
+    /**
+     * Convert a money amount to whole cents, rounding half up.
+     *
+     * @throws ArithmeticException if the amount does not fit in a `long` of cents
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /** Cents back to a two-decimal amount, as used in responses and on orders. */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public static final class Totals {
+        private final long[] lineCents;
+        private final long subtotalCents;
+        private final long itemCount;
+
+        Totals(long[] lineCents, long subtotalCents, long itemCount) {
+            this.lineCents = lineCents;
+            this.subtotalCents = subtotalCents;
+            this.itemCount = itemCount;
+        }
+
+        /** Total of line `i` (unit price times quantity) in cents. */
+        public long lineCents(int i) {
+            return lineCents[i];
+        }
+
+        public long subtotalCents() {
+            return subtotalCents;
+        }
+
+        /** Sum of quantities over all lines. */
+        public long itemCount() {
+            return itemCount;
+        }
+
+        /** Amount charged; no shipping, tax or discounts yet, so equal to the subtotal. */
+        public long totalCents() {
+            return subtotalCents;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.cart;
+
+import java.util.Map;
+
+import com.example.demo.dto.cart.CartItemOperation;
+
+/**
+ * Line quantity rules shared by {@link CartStore} and {@link GuestCartStore}.
+ *
+ * A line holds at most {@link #MAX} units. Single requests are bounded by validation, but sums
+ * are not (repeated adds, a guest cart merged at login, quantities put back after a rolled-back
+ * checkout), so every change goes through here: computed in long, clamped to [0, MAX], and the
+ * line removed at 0. The increment upsert in {@link CartStore} applies the same cap in SQL.
+ */
+final class CartQuantities {
+
+    /** Largest quantity of one cart line. */
+    static final int MAX = CartItemOperation.MAX_QUANTITY;
+
+    private CartQuantities() {
+    }
+
+    /** Add `added` (may be negative) to a line, absent lines counting as 0; returns the new quantity. */
+    static int addTo(Map<Long, Integer> lines, Long productId, int added) {
+        Integer current = lines.get(productId);
+        return setTo(lines, productId, (current != null ? current : 0L) + added);
+    }
+
+    /** Set a line's quantity; zero or less removes the line. Returns the quantity stored (0 if removed). */
+    static int setTo(Map<Long, Integer> lines, Long productId, long quantity) {
+        int clamped = (int) Math.max(0L, Math.min(quantity, MAX));
+        if (clamped > 0) {
+            lines.put(productId, clamped);
+            return clamped;
+        }
+        lines.remove(productId);
+        return 0;
+    }
+}
@@ -0,0 +1,504 @@
+package com.example.demo.cart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.cart.CartItemOperation;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.CartItemRepository;
+
+/**
+ * In-memory shopping carts with write-behind persistence to `cart_items`.
+ *
+ * Main concept:
+ * - Carts live in shards keyed by user id; each shard is a small access-ordered
+ *   map guarded by its own monitor, so different users rarely contend.
+ * - A cart is loaded from `cart_items` on first access (e.g. after a restart) and then served
+ *   from memory; reads and writes never wait for the database.
+ * - Writes only mark (user, product) lines dirty. A background flusher runs every
+ *   `cart.write-behind.flush-ms` and persists every dirty line (several writes to the same line
+ *   coalesce into one) with batched statements in one transaction.
+ * - Lines that were only added to are written as an increment (`INSERT ... ON CONFLICT DO UPDATE
+ *   SET quantity = LEAST(quantity + n, cap)`), so adds from another instance sharing the table are
+ *   never overwritten. Lines that were set, removed or reduced are written as their absolute quantity.
+ * - Failed writes are marked dirty again and retried on the next flush; a line the database
+ *   rejects outright (e.g. its product is gone) is dropped.
+ * - Only clean carts are evicted, oldest first, once more than `cart.store.max-carts` are held.
+ *
+ * Responsibilities:
+ * - Cart line operations ({@link #get}, {@link #add}, {@link #set}, {@link #remove}, {@link #applyAll}).
+ * - Merge guest carts into user carts ({@link #merge}).
+ * - Remove deleted products from carts, and ordered quantities within the checkout transaction.
+ * - Flush everything on shutdown.
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private final CartItemRepository cartItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final int maxCartsPerShard;
+
+    // serializes flushes, so writes to the same line reach the database in order
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // pending change of a dirty line that must be written as its absolute quantity
+    private static final int REPLACE = Integer.MIN_VALUE;
+
+    // capped like lines in memory (CartQuantities), so increments from any instance cannot overflow
+    private static final String INCREMENT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity) " +
+            "VALUES (?, ?, LEAST(?, " + CartQuantities.MAX + ")) " +
+            "ON CONFLICT (user_id, product_id) DO UPDATE " +
+            "SET quantity = LEAST(cart_items.quantity + EXCLUDED.quantity, " + CartQuantities.MAX + ")";
+    private static final String UPSERT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    // products deleted since the last flush (guarded by itself)
+    private final Set<Long> deletedProducts = new HashSet<>();
+
+    public CartStore(CartItemRepository cartItemRepository, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.store.shards:16}") int shardCount,
+            @Value("${cart.store.max-carts:100000}") int maxCarts) {
+        this.cartItemRepository = cartItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = new Shard[Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        this.maxCartsPerShard = Math.max(1, maxCarts / shards.length);
+    }
+
+    /** Lines of the user's cart (product id to quantity) in insertion order. */
+    public Map<Long, Integer> get(Long userId) {
+        return withCart(userId, cart -> new LinkedHashMap<>(cart.lines));
+    }
+
+    /** Quantity of one line, or null if the product is not in the cart. */
+    public Integer getQuantity(Long userId, Long productId) {
+        return withCart(userId, cart -> cart.lines.get(productId));
+    }
+
+    /** Add `quantity` to a line (creating it if needed) and return the new quantity. */
+    public int add(Long userId, Long productId, int quantity) {
+        return withCart(userId, cart -> {
+            int updated = CartQuantities.addTo(cart.lines, productId, quantity);
+            if (updated == 0) {
+                markDirty(userId, cart, productId, REPLACE);
+                return 0;
+            }
+            markDirty(userId, cart, productId, quantity > 0 ? quantity : REPLACE);
+            return updated;
+        });
+    }
+
+    /** Set a line's quantity; zero or less removes the line. */
+    public void set(Long userId, Long productId, int quantity) {
+        withCart(userId, cart -> {
+            CartQuantities.setTo(cart.lines, productId, quantity);
+            markDirty(userId, cart, productId, REPLACE);
+            return null;
+        });
+    }
+
+    /** Remove a line; returns false if the product was not in the cart. */
+    public boolean remove(Long userId, Long productId) {
+        return withCart(userId, cart -> {
+            if (cart.lines.remove(productId) == null) {
+                return false;
+            }
+            markDirty(userId, cart, productId, REPLACE);
+            return true;
+        });
+    }
+
+    /**
+     * Apply several line changes atomically: other requests for the same user see either none
+     * or all of them. Operations apply in order, so later ones win for the same product.
+     */
+    public void applyAll(Long userId, List<CartItemOperation> operations) {
+        withCart(userId, cart -> {
+            for (CartItemOperation operation : operations) {
+                Long productId = operation.getProductId();
+                int quantity = operation.isIncrement()
+                        ? CartQuantities.addTo(cart.lines, productId, operation.getQuantity())
+                        : CartQuantities.setTo(cart.lines, productId, operation.getQuantity());
+                boolean increment = operation.isIncrement() && operation.getQuantity() > 0 && quantity > 0;
+                markDirty(userId, cart, productId, increment ? operation.getQuantity() : REPLACE);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Add every line of `lines` to the user's cart (e.g. a guest cart at login). Only these lines
+     * are written, as one batched increment upsert in their own transaction, before this returns;
+     * other users' pending lines are left to the flusher.
+     *
+     * A cached cart gets the lines in memory as well, marked to be rewritten with their absolute
+     * quantity, so a flush that drained an older quantity of the same line cannot leave the table
+     * behind. A load of the cart racing with the merge is repeated (see {@link #withCart}).
+     *
+     * @throws org.springframework.dao.DataAccessException if the upsert fails; nothing was merged
+     */
+    public void merge(Long userId, Map<Long, Integer> lines) {
+        List<CartWrite> increments = new ArrayList<>(lines.size());
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            if (line.getValue() > 0) {
+                increments.add(new CartWrite(userId, line.getKey(), line.getValue(), true));
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> batch(INCREMENT_SQL, increments));
+
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            shard.merges++;
+            Cart cart = shard.carts.get(userId);
+            if (cart != null) {
+                for (CartWrite line : increments) {
+                    CartQuantities.addTo(cart.lines, line.productId, line.quantity);
+                    markDirty(userId, cart, line.productId, REPLACE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Take ordered quantities out of the user's cart as part of the checkout transaction; anything
+     * added beyond them stays. The remaining quantity of every ordered line is written in the
+     * caller's transaction, so the order and the cart change commit or roll back together and a
+     * crash before the next flush cannot bring ordered lines back. Memory changes right away (a
+     * flush running meanwhile writes the same quantities) and is restored if the transaction
+     * rolls back.
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void removeOrdered(Long userId, Map<Long, Integer> ordered) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("removeOrdered must run inside the checkout transaction");
+        }
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        List<CartWrite> writes = new ArrayList<>();
+        withCart(userId, cart -> {
+            for (Map.Entry<Long, Integer> line : ordered.entrySet()) {
+                Integer quantity = cart.lines.get(line.getKey());
+                if (quantity == null) {
+                    continue;
+                }
+                int remaining = Math.max(0, quantity - line.getValue());
+                if (remaining > 0) {
+                    cart.lines.put(line.getKey(), remaining);
+                } else {
+                    cart.lines.remove(line.getKey());
+                }
+                // pending increments are part of `quantity`; the next flush must not re-add them
+                markDirty(userId, cart, line.getKey(), REPLACE);
+                taken.put(line.getKey(), quantity - remaining);
+                writes.add(new CartWrite(userId, line.getKey(), remaining, false));
+            }
+            return null;
+        });
+        writeBatch(writes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    restore(userId, taken);
+                }
+            }
+        });
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        // cart rows are already gone from the table; drop the lines at the next flush
+        synchronized (deletedProducts) {
+            deletedProducts.addAll(event.getProductIds());
+        }
+    }
+
+    /** Persist all dirty lines. Runs on the scheduler; also callable directly (e.g. in tests). */
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            purgeDeletedProducts();
+            List<CartWrite> writes = drainDirtyLines();
+            if (!writes.isEmpty()) {
+                long start = System.currentTimeMillis();
+                write(writes);
+                log.debug("Cart flush: {} lines in {}ms", writes.size(), System.currentTimeMillis() - start);
+            }
+            evictCleanCarts();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ============================================
+    // CART ACCESS
+    // ============================================
+
+    /* run `action` on the user's cart under its shard monitor, loading the cart first if needed */
+    private <T> T withCart(Long userId, Function<Cart, T> action) {
+        Shard shard = shard(userId);
+        while (true) {
+            long merges;
+            synchronized (shard) {
+                Cart cart = shard.carts.get(userId);
+                if (cart != null) {
+                    return action.apply(cart);
+                }
+                merges = shard.merges;
+            }
+            // load outside the monitor; only clean carts are ever evicted, so the table is current
+            Map<Long, Integer> lines = new LinkedHashMap<>();
+            for (CartItemRepository.CartLineView row : cartItemRepository.findLinesByUserId(userId)) {
+                CartQuantities.addTo(lines, row.getProductId(), row.getQuantity());
+            }
+            synchronized (shard) {
+                Cart cart = shard.carts.get(userId);
+                if (cart == null) {
+                    if (shard.merges != merges) {
+                        // a merge committed meanwhile; the rows read may predate it
+                        continue;
+                    }
+                    cart = new Cart();
+                    cart.lines.putAll(lines);
+                    shard.carts.put(userId, cart);
+                }
+                return action.apply(cart);
+            }
+        }
+    }
+
+    private Shard shard(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return shards[(int) (h >>> 40) & (shards.length - 1)];
+    }
+
+    /*
+     * Record a pending change: `delta` is the amount added to the line, or REPLACE. Deltas add
+     * up; once a line needs its absolute quantity written it stays that way until flushed.
+     * Caller holds the shard monitor.
+     */
+    private void markDirty(Long userId, Cart cart, Long productId, int delta) {
+        cart.dirty.merge(productId, delta, CartStore::combine);
+        shard(userId).dirtyUsers.add(userId);
+    }
+
+    private static int combine(int pending, int delta) {
+        if (pending == REPLACE || delta == REPLACE) {
+            return REPLACE;
+        }
+        long sum = (long) pending + delta;
+        return sum > Integer.MAX_VALUE ? REPLACE : (int) sum;
+    }
+
+    // ============================================
+    // WRITE-BEHIND (caller holds the flush lock)
+    // ============================================
+
+    private void purgeDeletedProducts() {
+        Set<Long> deleted;
+        synchronized (deletedProducts) {
+            if (deletedProducts.isEmpty()) {
+                return;
+            }
+            deleted = new HashSet<>(deletedProducts);
+            deletedProducts.clear();
+        }
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (Cart cart : shard.carts.values()) {
+                    cart.lines.keySet().removeAll(deleted);
+                    cart.dirty.keySet().removeAll(deleted);
+                }
+            }
+        }
+    }
+
+    private List<CartWrite> drainDirtyLines() {
+        List<CartWrite> writes = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (Long userId : shard.dirtyUsers) {
+                    Cart cart = shard.carts.get(userId);
+                    if (cart == null) {
+                        continue;
+                    }
+                    for (Map.Entry<Long, Integer> pending : cart.dirty.entrySet()) {
+                        Long productId = pending.getKey();
+                        if (pending.getValue() != REPLACE) {
+                            writes.add(new CartWrite(userId, productId, pending.getValue(), true));
+                        } else {
+                            Integer quantity = cart.lines.get(productId);
+                            writes.add(new CartWrite(userId, productId, quantity != null ? quantity : 0, false));
+                        }
+                    }
+                    cart.dirty.clear();
+                }
+                shard.dirtyUsers.clear();
+            }
+        }
+        return writes;
+    }
+
+    private void write(List<CartWrite> writes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeBatch(writes));
+        } catch (RuntimeException e) {
+            log.warn("Cart flush of {} lines failed ({}); retrying line by line", writes.size(), e.getMessage());
+            for (CartWrite line : writes) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeBatch(List.of(line)));
+                } catch (DataIntegrityViolationException rejected) {
+                    log.warn("Dropping cart line user={} product={}: {}", line.userId, line.productId, rejected.getMessage());
+                } catch (RuntimeException retry) {
+                    requeue(line);
+                }
+            }
+        }
+    }
+
+    /*
+     * At most three batched statements: increments for lines that were only added to, upserts
+     * of the absolute quantity for other lines, and deletes for lines that are gone.
+     */
+    private void writeBatch(List<CartWrite> writes) {
+        List<CartWrite> increments = new ArrayList<>();
+        List<CartWrite> upserts = new ArrayList<>();
+        List<CartWrite> deletes = new ArrayList<>();
+        for (CartWrite line : writes) {
+            if (line.increment) {
+                increments.add(line);
+            } else if (line.quantity > 0) {
+                upserts.add(line);
+            } else {
+                deletes.add(line);
+            }
+        }
+        batch(INCREMENT_SQL, increments);
+        batch(UPSERT_SQL, upserts);
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes, deletes.size(), (ps, line) -> {
+                ps.setLong(1, line.userId);
+                ps.setLong(2, line.productId);
+            });
+        }
+    }
+
+    private void batch(String sql, List<CartWrite> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.userId);
+            ps.setLong(2, line.productId);
+            ps.setInt(3, line.quantity);
+        });
+    }
+
+    /* put quantities taken by a rolled-back checkout back into the cart */
+    private void restore(Long userId, Map<Long, Integer> taken) {
+        withCart(userId, cart -> {
+            for (Map.Entry<Long, Integer> line : taken.entrySet()) {
+                CartQuantities.addTo(cart.lines, line.getKey(), line.getValue());
+                markDirty(userId, cart, line.getKey(), REPLACE);
+            }
+            return null;
+        });
+    }
+
+    private void requeue(CartWrite line) {
+        Shard shard = shard(line.userId);
+        synchronized (shard) {
+            Cart cart = shard.carts.get(line.userId);
+            if (cart != null) {
+                // a failed increment was rolled back, so it is still owed to the table
+                markDirty(line.userId, cart, line.productId, line.increment ? line.quantity : REPLACE);
+            }
+        }
+    }
+
+    private void evictCleanCarts() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Iterator<Map.Entry<Long, Cart>> eldest = shard.carts.entrySet().iterator();
+                while (shard.carts.size() > maxCartsPerShard && eldest.hasNext()) {
+                    if (eldest.next().getValue().dirty.isEmpty()) {
+                        eldest.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Shard {
+        // access-ordered, so iteration starts at the least recently used cart
+        private final LinkedHashMap<Long, Cart> carts = new LinkedHashMap<>(64, 0.75f, true);
+        private final Set<Long> dirtyUsers = new LinkedHashSet<>();
+        // merges committed into this shard's users; a cart load that saw it change reloads
+        private long merges;
+    }
+
+    private static final class Cart {
+        private final LinkedHashMap<Long, Integer> lines = new LinkedHashMap<>();
+        // product id of every line changed since the last flush -> pending delta or REPLACE
+        private final HashMap<Long, Integer> dirty = new HashMap<>();
+    }
+
+    private static final class CartWrite {
+        private final long userId;
+        private final long productId;
+        // amount to add if `increment`, otherwise the line's absolute quantity
+        private final int quantity;
+        private final boolean increment;
+
+        CartWrite(long userId, long productId, int quantity, boolean increment) {
+            this.userId = userId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.increment = increment;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.cart;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues and verifies guest cart ids carried in the `GUEST_CART` cookie.
+ *
+ * Main concept:
+ * - A guest id is 16 random bytes; the cookie holds `id.signature`, where the signature is an
+ *   HMAC-SHA256 of the id. A cookie whose signature does not verify is ignored, so clients cannot
+ *   pick (or guess) another visitor's cart id.
+ * - The key comes from `cart.guest.cookie-secret`. When it is empty a random key is generated at
+ *   startup: guest carts only live in memory, so cookies from before a restart point at nothing
+ *   anyway. Instances behind one load balancer need the same secret (and sticky sessions).
+ */
+@Component
+public class GuestCartIds {
+
+    public static final String COOKIE = "GUEST_CART";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec key;
+    private final Duration maxAge;
+
+    public GuestCartIds(
+            @Value("${cart.guest.cookie-secret:}") String secret,
+            @Value("${cart.guest.idle-minutes:60}") long idleMinutes) {
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            keyBytes = new byte[32];
+            random.nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC);
+        this.maxAge = Duration.ofMinutes(idleMinutes);
+    }
+
+    /** A new random guest id. */
+    public String newId() {
+        byte[] id = new byte[16];
+        random.nextBytes(id);
+        return ENCODER.encodeToString(id);
+    }
+
+    /** The guest id in a cookie value, or null if the value is missing, malformed or not signed by us. */
+    public String verify(String cookieValue) {
+        if (cookieValue == null) {
+            return null;
+        }
+        int dot = cookieValue.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String id = cookieValue.substring(0, dot);
+        byte[] expected = sign(id).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = cookieValue.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual) ? id : null;
+    }
+
+    /** Cookie carrying the signed id; renewed on every cart write so it lives as long as the cart. */
+    public ResponseCookie cookie(String guestId) {
+        return ResponseCookie.from(COOKIE, guestId + "." + sign(guestId))
+                .httpOnly(true)
+                .sameSite("Lax")
+                .path("/api")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    /** Expired cookie that removes the guest id from the browser (after the cart was merged). */
+    public ResponseCookie clearCookie() {
+        return ResponseCookie.from(COOKIE, "")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .path("/api")
+                .maxAge(0)
+                .build();
+    }
+
+    private String sign(String id) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return ENCODER.encodeToString(mac.doFinal(id.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.demo.cart;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.cart.CartItemOperation;
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * In-memory carts of anonymous visitors, keyed by guest id (see {@link GuestCartIds}).
+ *
+ * Main concept:
+ * - Guest carts never touch the database; they are merged into the user's cart at login or
+ *   registration and are lost on restart, like the signed ids pointing at them.
+ * - Idle expiry uses a timing wheel: `slots` buckets of guest ids, one per tick of
+ *   `idle-minutes / slots`. A cart sits in the bucket of the tick it was last used in; each tick
+ *   the wheel advances and the bucket it lands on holds exactly the carts idle for a full turn,
+ *   which are dropped in one pass. No per-cart timers; a cart changes bucket at most once per
+ *   tick however often it is used.
+ * - At most `cart.guest.max-carts` carts are held; creating one more drops the least recently
+ *   used ones, oldest bucket first.
+ * - Deleted products are collected and purged from all carts once per tick (like
+ *   {@link CartStore}); until then they are filtered out of carts taken for a merge, and cart
+ *   views skip them because the product lookup finds nothing.
+ *
+ * Locking: each cart is guarded by its own monitor; the wheel (and the `removed` flag) by the
+ * wheel monitor, always taken after a cart monitor, never before.
+ */
+@Slf4j
+@Component
+public class GuestCartStore {
+
+    private final ConcurrentHashMap<String, GuestCart> carts = new ConcurrentHashMap<>();
+    private final Set<String>[] wheel;
+    private final int maxCarts;
+
+    // products deleted since the last purge (guarded by itself)
+    private final Set<Long> deletedProducts = new HashSet<>();
+
+    // current tick; guarded by the wheel monitor
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public GuestCartStore(
+            @Value("${cart.guest.wheel-slots:60}") int slots,
+            @Value("${cart.guest.max-carts:50000}") int maxCarts) {
+        this.wheel = new Set[Math.max(2, slots)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new LinkedHashSet<>();
+        }
+        this.maxCarts = Math.max(1, maxCarts);
+    }
+
+    /** Lines of the guest's cart (product id to quantity); empty if there is none. */
+    public Map<Long, Integer> get(String guestId) {
+        GuestCart cart = carts.get(guestId);
+        if (cart == null) {
+            return Collections.emptyMap();
+        }
+        synchronized (cart) {
+            return touch(guestId, cart) ? new LinkedHashMap<>(cart.lines) : Collections.emptyMap();
+        }
+    }
+
+    /** Quantity of one line, or null if the product is not in the cart. */
+    public Integer getQuantity(String guestId, Long productId) {
+        GuestCart cart = carts.get(guestId);
+        if (cart == null) {
+            return null;
+        }
+        synchronized (cart) {
+            return cart.lines.get(productId);
+        }
+    }
+
+    /** Add `quantity` to a line (creating the cart and line if needed) and return the new quantity. */
+    public int add(String guestId, Long productId, int quantity) {
+        return withCart(guestId, cart -> CartQuantities.addTo(cart.lines, productId, quantity));
+    }
+
+    /** Set a line's quantity; zero or less removes the line. */
+    public void set(String guestId, Long productId, int quantity) {
+        withCart(guestId, cart -> {
+            CartQuantities.setTo(cart.lines, productId, quantity);
+            return null;
+        });
+    }
+
+    /** Remove a line; returns false if the product was not in the cart. */
+    public boolean remove(String guestId, Long productId) {
+        GuestCart cart = carts.get(guestId);
+        if (cart == null) {
+            return false;
+        }
+        synchronized (cart) {
+            return touch(guestId, cart) && cart.lines.remove(productId) != null;
+        }
+    }
+
+    /** Apply several line changes atomically, in order (same semantics as {@link CartStore#applyAll}). */
+    public void applyAll(String guestId, List<CartItemOperation> operations) {
+        withCart(guestId, cart -> {
+            for (CartItemOperation operation : operations) {
+                if (operation.isIncrement()) {
+                    CartQuantities.addTo(cart.lines, operation.getProductId(), operation.getQuantity());
+                } else {
+                    CartQuantities.setTo(cart.lines, operation.getProductId(), operation.getQuantity());
+                }
+            }
+            return null;
+        });
+    }
+
+    /** Remove the guest's cart and return its lines (empty if there is none), e.g. to merge them at login. */
+    public Map<Long, Integer> take(String guestId) {
+        GuestCart cart = carts.get(guestId);
+        if (cart == null) {
+            return Collections.emptyMap();
+        }
+        synchronized (cart) {
+            synchronized (wheel) {
+                if (cart.removed) {
+                    return Collections.emptyMap();
+                }
+                wheel[slot(cart.tick)].remove(guestId);
+                drop(guestId, cart);
+            }
+            Map<Long, Integer> lines = new LinkedHashMap<>(cart.lines);
+            // products deleted since the last purge must not reach the user's cart
+            synchronized (deletedProducts) {
+                lines.keySet().removeAll(deletedProducts);
+            }
+            return lines;
+        }
+    }
+
+    /** Put lines back into the guest's cart (quantities add up to the line cap), e.g. after a failed merge. */
+    public void restore(String guestId, Map<Long, Integer> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        withCart(guestId, cart -> {
+            for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+                CartQuantities.addTo(cart.lines, line.getKey(), line.getValue());
+            }
+            return null;
+        });
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        // purged from all carts at the next tick, in one pass for however many deletions came in
+        synchronized (deletedProducts) {
+            deletedProducts.addAll(event.getProductIds());
+        }
+    }
+
+    /** Advance the wheel by one tick, drop the carts idle for a full turn and purge deleted products. */
+    @Scheduled(fixedRateString = "#{${cart.guest.idle-minutes:60} * 60000 / ${cart.guest.wheel-slots:60}}")
+    public void advance() {
+        purgeDeletedProducts();
+        int expired;
+        synchronized (wheel) {
+            tick++;
+            Set<String> bucket = wheel[slot(tick)];
+            expired = 0;
+            for (String guestId : bucket) {
+                GuestCart cart = carts.get(guestId);
+                if (cart != null) {
+                    drop(guestId, cart);
+                    expired++;
+                }
+            }
+            bucket.clear();
+        }
+        if (expired > 0) {
+            log.debug("Expired {} idle guest carts ({} left)", expired, carts.size());
+        }
+    }
+
+    private void purgeDeletedProducts() {
+        Set<Long> deleted;
+        synchronized (deletedProducts) {
+            if (deletedProducts.isEmpty()) {
+                return;
+            }
+            deleted = new HashSet<>(deletedProducts);
+        }
+        for (GuestCart cart : carts.values()) {
+            synchronized (cart) {
+                cart.lines.keySet().removeAll(deleted);
+            }
+        }
+        // only now, so take() keeps filtering them until every cart is clean
+        synchronized (deletedProducts) {
+            deletedProducts.removeAll(deleted);
+        }
+    }
+
+    // ============================================
+    // CART ACCESS
+    // ============================================
+
+    /* run `action` on the guest's cart under its monitor, creating the cart if needed */
+    private <T> T withCart(String guestId, Function<GuestCart, T> action) {
+        while (true) {
+            GuestCart cart = carts.get(guestId);
+            if (cart == null) {
+                cart = create(guestId);
+            }
+            synchronized (cart) {
+                // a cart that expired or was taken meanwhile is gone; use a fresh one
+                if (touch(guestId, cart)) {
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private GuestCart create(String guestId) {
+        synchronized (wheel) {
+            GuestCart existing = carts.get(guestId);
+            if (existing != null) {
+                return existing;
+            }
+            evictOldest(carts.size() + 1 - maxCarts);
+            GuestCart cart = new GuestCart(tick);
+            carts.put(guestId, cart);
+            wheel[slot(tick)].add(guestId);
+            return cart;
+        }
+    }
+
+    /* move the cart to the current tick's bucket; false if it was removed. Caller holds the cart monitor. */
+    private boolean touch(String guestId, GuestCart cart) {
+        synchronized (wheel) {
+            if (cart.removed) {
+                return false;
+            }
+            if (cart.tick != tick) {
+                wheel[slot(cart.tick)].remove(guestId);
+                cart.tick = tick;
+                wheel[slot(tick)].add(guestId);
+            }
+            return true;
+        }
+    }
+
+    /* caller holds the wheel monitor */
+    private void evictOldest(int count) {
+        // the bucket after the current one is the oldest
+        for (long age = wheel.length - 1; age >= 0 && count > 0; age--) {
+            Set<String> bucket = wheel[slot(tick - age)];
+            Iterator<String> ids = bucket.iterator();
+            while (ids.hasNext() && count > 0) {
+                String guestId = ids.next();
+                GuestCart cart = carts.get(guestId);
+                if (cart != null) {
+                    drop(guestId, cart);
+                    count--;
+                }
+                ids.remove();
+            }
+        }
+    }
+
+    /* caller holds the wheel monitor */
+    private void drop(String guestId, GuestCart cart) {
+        cart.removed = true;
+        carts.remove(guestId, cart);
+    }
+
+    private int slot(long t) {
+        return (int) Math.floorMod(t, (long) wheel.length);
+    }
+
+    private static final class GuestCart {
+        // guarded by the cart's monitor
+        private final LinkedHashMap<Long, Integer> lines = new LinkedHashMap<>();
+        // guarded by the wheel monitor
+        private long tick;
+        private boolean removed;
+
+        GuestCart(long tick) {
+            this.tick = tick;
+        }
+    }
+}
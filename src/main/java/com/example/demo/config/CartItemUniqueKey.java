@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ensures the unique key on cart_items (user_id, product_id).
+ *
+ * Main concept:
+ * - Older code could insert several rows for the same cart line; `ddl-auto=update` then fails
+ *   (quietly) to add the key declared on CartItem, and the ON CONFLICT upserts need it.
+ * - If the key is missing, duplicate rows are merged into the oldest one (quantities summed) and
+ *   the key is added, all in one transaction that holds off concurrent writers to the table.
+ * - Runs like {@link SequenceAligner}: after the schema update, before the web server accepts
+ *   requests, so no cart upsert runs without the key it relies on.
+ */
+@Slf4j
+@Component
+public class CartItemUniqueKey implements SmartInitializingSingleton {
+
+    /** Must match the name on CartItem's @UniqueConstraint. */
+    private static final String CONSTRAINT = "uk_cart_items_user_product";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CartItemUniqueKey(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (constraintExists()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // blocks inserts until the key exists; plain reads keep working
+            jdbcTemplate.execute("LOCK TABLE cart_items IN SHARE ROW EXCLUSIVE MODE");
+            if (constraintExists()) {
+                return;
+            }
+            int merged = jdbcTemplate.update(
+                    "UPDATE cart_items c SET quantity = d.total FROM (" +
+                    "SELECT MIN(id) AS keep_id, SUM(quantity) AS total FROM cart_items " +
+                    "GROUP BY user_id, product_id HAVING COUNT(*) > 1) d " +
+                    "WHERE c.id = d.keep_id");
+            int removed = jdbcTemplate.update(
+                    "DELETE FROM cart_items c USING cart_items k " +
+                    "WHERE c.user_id = k.user_id AND c.product_id = k.product_id AND c.id > k.id");
+            jdbcTemplate.execute("ALTER TABLE cart_items ADD CONSTRAINT " + CONSTRAINT + " UNIQUE (user_id, product_id)");
+            log.info("Added {}: merged {} duplicated cart lines, removed {} rows", CONSTRAINT, merged, removed);
+        });
+    }
+
+    private boolean constraintExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, CONSTRAINT);
+        return count != null && count > 0;
+    }
+}
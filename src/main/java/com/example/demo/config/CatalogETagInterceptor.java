@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import com.example.demo.cache.CatalogVersion;
+
+/**
+ * Conditional GET support for public catalog endpoints.
+ *
+ * Main concept:
+ * - Every catalog response is tagged with {@link CatalogVersion#etag()}; the tag is read before
+ *   the handler runs, so it can only be older than the data served, never newer.
+ * - A request whose `If-None-Match` contains the current tag is answered with 304 right here,
+ *   before the controller, so no service or JPA code runs.
+ * - `Cache-Control: no-cache` lets browsers and the CDN store responses but makes them
+ *   revalidate on every use (which is what turns into the cheap 304s).
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersion catalogVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        String etag = catalogVersion.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return false;
+        }
+        return true;
+    }
+
+    /* If-None-Match uses weak comparison: a W/ prefix on the client's tag is ignored */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
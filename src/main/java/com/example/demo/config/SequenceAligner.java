@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.entity.IdSequence;
+
+/**
+ * Moves the id sequences past the ids already in their tables.
+ *
+ * Main concept:
+ * - Product, Category, Order and OrderItem used IDENTITY columns before switching to pooled
+ *   sequences; `ddl-auto=update` creates the new sequences starting at 1, which would collide
+ *   with existing rows.
+ * - Each sequence is set to at least MAX(id) + {@link IdSequence#ALLOCATION_SIZE}, and never moved backwards, so
+ *   blocks already handed to a running instance stay valid.
+ * - Runs once all singletons exist (so the EntityManagerFactory has applied the schema update)
+ *   but before the context starts its lifecycle beans: the web server does not accept requests,
+ *   and no runner (e.g. the seeder) has inserted rows, until the sequences are aligned.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SequenceAligner implements SmartInitializingSingleton {
+
+    private static final String[] TABLES = {"products", "categories", "orders", "order_items"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String table : TABLES) {
+            String sequence = table + "_seq";
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST(" +
+                    "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + IdSequence.ALLOCATION_SIZE + ", " +
+                    "(SELECT last_value FROM " + sequence + ")))",
+                    Long.class);
+            log.debug("Sequence {} aligned to {}", sequence, value);
+        }
+    }
+}
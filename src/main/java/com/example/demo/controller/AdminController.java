@@ -3,7 +3,11 @@ package com.example.demo.controller;
 import com.example.demo.dto.admin.ProductRequest;
 import com.example.demo.dto.admin.CategoryRequest;
 import com.example.demo.dto.admin.UserResponse;
+import com.example.demo.dto.admin.CacheStatsResponse;
+import com.example.demo.dto.admin.DeletionResponse;
+import com.example.demo.dto.admin.ProductImportResponse;
 import com.example.demo.dto.product.ProductResponse;
+import com.example.demo.dto.product.SliceResponse;
 import com.example.demo.dto.category.CategoryResponse;
 import com.example.demo.dto.order.OrderResponse;
 import com.example.demo.dto.order.OrderItemResponse;
@@ -11,18 +15,37 @@ import com.example.demo.entity.Product;
 import com.example.demo.entity.Category;
 import com.example.demo.entity.User;
 import com.example.demo.entity.Order;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.ProductChangedEvent;
 import com.example.demo.repository.ProductRepository;
 import com.example.demo.repository.CategoryRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.OrderRepository;
+import com.example.demo.service.ProductCountCache;
+import com.example.demo.service.CatalogDeletionService;
+import com.example.demo.service.ProductExportService;
+import com.example.demo.service.ProductImportService;
+import com.example.demo.cache.CategorySummaryCache;
+import com.example.demo.cache.ProductCache;
+import com.example.demo.cache.ProductPageCache;
+import com.example.demo.cache.SearchResultCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -39,6 +62,15 @@ public class AdminController {
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
+    private final ProductCountCache productCountCache;
+    private final ProductCache productCache;
+    private final ProductPageCache productPageCache;
+    private final SearchResultCache searchResultCache;
+    private final CategorySummaryCache categorySummaryCache;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final CatalogDeletionService catalogDeletionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ============================================
     // PRODUCTS MANAGEMENT
@@ -51,12 +83,81 @@ public class AdminController {
         
         log.info("🔐 [AdminController] GET /api/admin/products - page={}, size={}", page, size);
         
-        Page<Product> products = productRepository.findAll(PageRequest.of(page, size));
-        Page<ProductResponse> response = products.map(this::toProductResponse);
+        Page<ProductResponse> response = productRepository.findAllResponses(PageRequest.of(page, size));
         
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/products", params = "slice=true")
+    public ResponseEntity<SliceResponse<ProductResponse>> getAllProductsAsSlice(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("🔐 [AdminController] GET /api/admin/products?slice=true - page={}, size={}", page, size);
+        
+        Slice<ProductResponse> products = productRepository.sliceWithCategory(null, null, null, PageRequest.of(page, size));
+        SliceResponse<ProductResponse> response = SliceResponse.<ProductResponse>builder()
+                .content(products.getContent())
+                .page(products.getNumber())
+                .size(products.getSize())
+                .hasNext(products.hasNext())
+                .approximateTotal(includeTotal ? productCountCache.approximateCount(null, null, null) : null)
+                .build();
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Bulk import from a streamed request body.
+     *
+     * Send `Content-Type: text/csv` (header row with name, price[, description, category, imageUrl])
+     * or `application/x-ndjson` (one JSON object per line). Progress of a running import is
+     * visible under GET /api/admin/products/import.
+     */
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson", "application/ndjson"})
+    public ResponseEntity<ProductImportResponse> importProducts(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        String format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportService.FORMAT_CSV
+                : ProductImportService.FORMAT_NDJSON;
+        log.info("📦 [AdminController] POST /api/admin/products/import - format={}", format);
+        
+        ProductImportResponse result = productImportService.importProducts(request.getInputStream(), format);
+        
+        log.info("✅ [AdminController] Import {}: {} products imported, {} rows rejected",
+                result.getJobId(), result.getImported(), result.getFailed());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Stream the whole catalog as `format=ndjson` (default) or `format=csv`.
+     * Rows are read through a database cursor and written as they arrive; the output can be
+     * re-imported through POST /api/admin/products/import.
+     */
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        log.info("📦 [AdminController] GET /api/admin/products/export - format={}", format);
+        
+        boolean csv = ProductExportService.FORMAT_CSV.equalsIgnoreCase(format);
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv;charset=UTF-8") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + (csv ? "csv" : "ndjson") + "\"")
+                .body(productExportService.export(csv ? ProductExportService.FORMAT_CSV : ProductExportService.FORMAT_NDJSON));
+    }
+
+    @GetMapping("/products/import")
+    public ResponseEntity<List<ProductImportResponse>> getImports() {
+        return ResponseEntity.ok(productImportService.getJobs());
+    }
+
+    @GetMapping("/products/import/{jobId}")
+    public ResponseEntity<ProductImportResponse> getImport(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getJob(jobId));
+    }
+
     @PostMapping("/products")
     public ResponseEntity<ProductResponse> createProduct(@RequestBody ProductRequest request) {
         log.info("📦 [AdminController] POST /api/admin/products");
@@ -76,6 +177,7 @@ public class AdminController {
                 .build();
         
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct));
         
         log.info("✅ [AdminController] Product created: {}", savedProduct.getId());
         
@@ -95,6 +197,7 @@ public class AdminController {
         
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
+        Long previousCategoryId = product.getCategory() != null ? product.getCategory().getId() : null;
         
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -103,19 +206,35 @@ public class AdminController {
         product.setCategory(category);
         
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedProduct, previousCategoryId));
         
         log.info("✅ [AdminController] Product updated: {}", updatedProduct.getId());
         
         return ResponseEntity.ok(toProductResponse(updatedProduct));
     }
 
+    /** Delete a product with its cart and wishlist rows; 404 if it does not exist, 409 if it was ordered. */
     @DeleteMapping("/products/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
+    public ResponseEntity<DeletionResponse> deleteProduct(@PathVariable Long id) {
         log.info("🔐 [AdminController] DELETE /api/admin/products/{}", id);
         
-        productRepository.deleteById(id);
+        DeletionResponse result = catalogDeletionService.deleteProducts(List.of(id));
+        if (result.getProductsDeleted() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
         
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Delete several products at once, e.g. `ids=3,1,2`, with their cart and wishlist rows.
+     * Returns the number of deleted rows; 409 if any of the products appears in an order.
+     */
+    @DeleteMapping("/products")
+    public ResponseEntity<DeletionResponse> deleteProducts(@RequestParam List<Long> ids) {
+        log.info("🔐 [AdminController] DELETE /api/admin/products - {} ids", ids.size());
+        
+        return ResponseEntity.ok(catalogDeletionService.deleteProducts(ids));
     }
 
     // ============================================
@@ -126,12 +245,8 @@ public class AdminController {
     public ResponseEntity<List<CategoryResponse>> getAllCategories() {
         log.info("🔐 [AdminController] GET /api/admin/categories");
         
-        List<Category> categories = categoryRepository.findAll();
-        List<CategoryResponse> response = categories.stream()
-                .map(this::toCategoryResponse)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+        // summaries with product counts, from memory
+        return ResponseEntity.ok(categorySummaryCache.getAll());
     }
 
     @PostMapping("/categories")
@@ -144,17 +259,20 @@ public class AdminController {
                 .build();
         
         Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved));
         
         return ResponseEntity.ok(toCategoryResponse(saved));
     }
 
+    /**
+     * Delete a category with all of its products and their cart and wishlist rows, using
+     * set-based statements. Returns the number of deleted rows; 409 if any product appears in an order.
+     */
     @DeleteMapping("/categories/{id}")
-    public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
+    public ResponseEntity<DeletionResponse> deleteCategory(@PathVariable Long id) {
         log.info("🔐 [AdminController] DELETE /api/admin/categories/{}", id);
         
-        categoryRepository.deleteById(id);
-        
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(catalogDeletionService.deleteCategory(id));
     }
 
     // ============================================
@@ -278,6 +396,13 @@ public class AdminController {
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        log.info("📊 [AdminController] GET /api/admin/caches");
+        
+        return ResponseEntity.ok(List.of(productCache.stats(), productPageCache.stats(), searchResultCache.stats()));
+    }
+
     // ============================================
     // HELPER METHODS
     // ============================================
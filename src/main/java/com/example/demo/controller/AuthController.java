@@ -3,17 +3,22 @@ package com.example.demo.controller;
 import java.net.URI;
 import java.security.Principal;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import com.example.demo.cart.GuestCartIds;
 import com.example.demo.service.AuthService;
+import com.example.demo.service.CartService;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.JwtUtils;
 import com.example.demo.dto.auth.LoginRequest;
@@ -34,9 +39,14 @@ public class AuthController {
     private final AuthService authService;
     private final UserRepository userRepository;
     private final JwtUtils jwtUtils;
+    private final CartService cartService;
+    private final GuestCartIds guestCartIds;
 
     @PostMapping("/register")
-    public ResponseEntity<TokenResponse> register(@RequestBody RegisterRequest request) {
+    public ResponseEntity<TokenResponse> register(
+            @RequestBody RegisterRequest request,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
         log.info("📝 ========================================");
         log.info("📝 [AuthController] POST /api/auth/register");
         log.info("📝 ========================================");
@@ -53,6 +63,8 @@ public class AuthController {
             log.info("✅ [AuthController] Token generated (first 20 chars): {}...", token.getToken().substring(0, 20));
             log.info("✅ [AuthController] User email: {}", token.getEmail());
             log.info("✅ [AuthController] User name: {}", token.getName());
+
+            mergeGuestCart(guestCookie, token.getEmail(), response);
             
             return ResponseEntity.created(URI.create("/api/auth/register")).body(token);
         } catch (IllegalArgumentException e) {
@@ -78,8 +90,12 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<TokenResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<TokenResponse> login(
+            @RequestBody LoginRequest request,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
         TokenResponse token = authService.login(request);
+        mergeGuestCart(guestCookie, token.getEmail(), response);
         return ResponseEntity.ok(token);
     }
 
@@ -145,4 +161,23 @@ public class AuthController {
             .role(savedAdmin.getRole().name())
             .build());
     }
+
+    /*
+     * Move the visitor's guest cart (if the request carries a valid guest cookie) into the cart of
+     * the user who just logged in or registered, and clear the cookie. A failed merge is logged
+     * and does not fail the login; the guest cart and cookie stay, so the next login retries it.
+     */
+    private void mergeGuestCart(String guestCookie, String email, HttpServletResponse response) {
+        String guestId = guestCartIds.verify(guestCookie);
+        if (guestId == null) {
+            return;
+        }
+        try {
+            userRepository.findByEmail(email)
+                .ifPresent(user -> cartService.mergeGuestCart(guestId, user.getId()));
+            response.addHeader(HttpHeaders.SET_COOKIE, guestCartIds.clearCookie().toString());
+        } catch (RuntimeException e) {
+            log.warn("⚠️ [AuthController] Guest cart merge failed for {}: {}", email, e.getMessage());
+        }
+    }
 }
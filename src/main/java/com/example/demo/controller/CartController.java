@@ -1,11 +1,19 @@
 package com.example.demo.controller;
 
+import com.example.demo.cart.GuestCartIds;
 import com.example.demo.service.CartService;
+import com.example.demo.dto.cart.CartBatchRequest;
+import com.example.demo.dto.cart.CartItemOperation;
 import com.example.demo.dto.cart.CartResponse;
 import com.example.demo.dto.cart.CartItemResponse;
 import com.example.demo.repository.UserRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.security.Principal;
@@ -19,14 +27,17 @@ public class CartController {
     
     private final CartService cartService;
     private final UserRepository userRepository;
+    private final GuestCartIds guestCartIds;
 
     @GetMapping
-    public ResponseEntity<CartResponse> getCart(Principal principal) {
+    public ResponseEntity<CartResponse> getCart(
+            Principal principal,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
         log.info("🛒 [CartController] GET /api/cart - Principal: {}", principal != null ? principal.getName() : "null");
         
         if (principal == null) {
-            log.warn("❌ [CartController] No principal - returning 401");
-            return ResponseEntity.status(401).build();
+            return ResponseEntity.ok(cartService.getGuestCart(guestId(guestCookie, response, false)));
         }
         
         var user = userRepository.findByEmail(principal.getName())
@@ -42,8 +53,10 @@ public class CartController {
     @PostMapping
     public ResponseEntity<CartItemResponse> addToCart(
             @RequestParam Long productId,
-            @RequestParam(defaultValue = "1") Integer quantity,
-            Principal principal) {
+            @RequestParam(defaultValue = "1") @Min(1) @Max(CartItemOperation.MAX_QUANTITY) Integer quantity,
+            Principal principal,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
         
         log.info("🛒 ========== ADD TO CART REQUEST ==========");
         log.info("🛒 [CartController] POST /api/cart");
@@ -53,8 +66,8 @@ public class CartController {
         log.info("🛒 [CartController] Principal name: {}", principal != null ? principal.getName() : "NULL");
         
         if (principal == null) {
-            log.error("❌ [CartController] NO PRINCIPAL - Returning 401");
-            return ResponseEntity.status(401).build();
+            log.info("🛒 [CartController] No principal - adding to guest cart");
+            return ResponseEntity.ok(cartService.addToGuestCart(guestId(guestCookie, response, true), productId, quantity));
         }
         
         try {
@@ -84,15 +97,16 @@ public class CartController {
     @PutMapping
     public ResponseEntity<CartItemResponse> updateQuantity(
             @RequestParam Long productId,
-            @RequestParam Integer quantity,
-            Principal principal) {
+            @RequestParam @Min(0) @Max(CartItemOperation.MAX_QUANTITY) Integer quantity,
+            Principal principal,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
         
         log.info("🛒 [CartController] PUT /api/cart - productId: {}, quantity: {}, principal: {}", 
                  productId, quantity, principal != null ? principal.getName() : "null");
         
         if (principal == null) {
-            log.warn("❌ [CartController] No principal - returning 401");
-            return ResponseEntity.status(401).build();
+            return ResponseEntity.ok(cartService.updateGuestQuantity(guestId(guestCookie, response, true), productId, quantity));
         }
         
         var user = userRepository.findByEmail(principal.getName())
@@ -107,17 +121,46 @@ public class CartController {
         return ResponseEntity.ok(item);
     }
 
+    /**
+     * Apply several line changes in one call and return the resulting cart.
+     * Each item sets a product's quantity (0 removes it) or, with `increment: true`, adds to it.
+     */
+    @PatchMapping("/items")
+    public ResponseEntity<CartResponse> updateItems(
+            @Valid @RequestBody CartBatchRequest request,
+            Principal principal,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
+        
+        log.info("🛒 [CartController] PATCH /api/cart/items - {} operations, principal: {}", 
+                 request.getItems().size(), principal != null ? principal.getName() : "null");
+        
+        if (principal == null) {
+            return ResponseEntity.ok(cartService.applyGuestOperations(guestId(guestCookie, response, true), request.getItems()));
+        }
+        
+        var user = userRepository.findByEmail(principal.getName())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        CartResponse cart = cartService.applyOperations(user.getId(), request.getItems());
+        log.info("✅ [CartController] Cart updated: {} items", cart.getItems().size());
+        
+        return ResponseEntity.ok(cart);
+    }
+
     @DeleteMapping
     public ResponseEntity<Void> removeFromCart(
             @RequestParam Long productId,
-            Principal principal) {
+            Principal principal,
+            @CookieValue(name = GuestCartIds.COOKIE, required = false) String guestCookie,
+            HttpServletResponse response) {
         
         log.info("🛒 [CartController] DELETE /api/cart - productId: {}, principal: {}", 
                  productId, principal != null ? principal.getName() : "null");
         
         if (principal == null) {
-            log.warn("❌ [CartController] No principal - returning 401");
-            return ResponseEntity.status(401).build();
+            cartService.removeFromGuestCart(guestId(guestCookie, response, false), productId);
+            return ResponseEntity.noContent().build();
         }
         
         var user = userRepository.findByEmail(principal.getName())
@@ -130,4 +173,20 @@ public class CartController {
         
         return ResponseEntity.noContent().build();
     }
+
+    /*
+     * Guest id from the signed cookie. Without a valid cookie a fresh id is used: reads see an
+     * empty cart, and writes start a new guest cart. Writes (re)issue the cookie, so it expires
+     * together with the cart.
+     */
+    private String guestId(String guestCookie, HttpServletResponse response, boolean write) {
+        String guestId = guestCartIds.verify(guestCookie);
+        if (guestId == null) {
+            guestId = guestCartIds.newId();
+        }
+        if (write) {
+            response.addHeader(HttpHeaders.SET_COOKIE, guestCartIds.cookie(guestId).toString());
+        }
+        return guestId;
+    }
 }
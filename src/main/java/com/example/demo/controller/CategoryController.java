@@ -2,7 +2,6 @@ package com.example.demo.controller;
 
 import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -35,17 +34,17 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
+    /**
+     * All categories with their product counts, served from memory.
+     */
     @GetMapping
     public List<CategoryResponse> getAll() {
-        return categoryService.findAll().stream()
-                .map(categoryService::toResponse)
-                .collect(Collectors.toList());
+        return categoryService.findAllSummaries();
     }
 
     @GetMapping("/{id}")
     public CategoryResponse getById(@PathVariable Long id) {
-        Category c = categoryService.findById(id);
-        return categoryService.toResponse(c);
+        return categoryService.findSummaryById(id);
     }
 
     @PostMapping
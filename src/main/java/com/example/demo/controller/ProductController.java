@@ -2,6 +2,7 @@ package com.example.demo.controller;
 
 import java.net.URI;
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,15 +19,25 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
 
 import lombok.RequiredArgsConstructor;
 
+import com.example.demo.cache.ProductPageCache;
+import com.example.demo.event.CatalogChangeBroadcaster;
 import com.example.demo.service.ProductService;
 import com.example.demo.entity.Product;
+import com.example.demo.dto.product.CursorPageResponse;
+import com.example.demo.dto.product.ProductBatchRequest;
+import com.example.demo.dto.product.ProductBatchResponse;
 import com.example.demo.dto.product.ProductResponse;
+import com.example.demo.dto.product.RelatedProductResponse;
+import com.example.demo.dto.product.ProductSearchResponse;
+import com.example.demo.dto.product.SliceResponse;
+import com.example.demo.dto.product.SuggestionResponse;
 import com.example.demo.dto.product.ProductRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 
@@ -35,6 +46,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
  *
  * Endpoints:
  * - GET  /api/products         -> list all products
+ * - GET  /api/products?cursor=  -> list products with keyset (cursor) pagination
+ * - GET  /api/products?slice=true -> list products without an exact total count
+ * - GET  /api/products/suggest?prefix= -> typeahead completions for product/category names
+ * - GET  /api/products/batch?ids=1,2,3 -> resolve many products in one call (POST for long lists)
  * - GET  /api/products/{id}    -> get product by id
  * - POST /api/products         -> create a new product
  * - PUT  /api/products/{id}    -> update existing product
@@ -47,20 +62,63 @@ public class ProductController {
 
     private final ProductService productService;
     private final com.example.demo.service.CategoryService categoryService;
+    private final ProductPageCache productPageCache;
+    private final CatalogChangeBroadcaster catalogChangeBroadcaster;
 
+    /**
+     * Paged listing. Served from {@link ProductPageCache} as pre-rendered JSON when possible;
+     * the body is identical to serializing the `Page<ProductResponse>` from the search.
+     */
     @GetMapping
-    public Page<ProductResponse> getAll(
+    public ResponseEntity<byte[]> getAll(
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "category", required = false) Long categoryId,
+            Pageable pageable) {
+        byte[] body = productPageCache.get(search, categoryId, pageable,
+                () -> productService.search(search, categoryId, null, null, pageable));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Count-free listing, selected with `slice=true`.
+     *
+     * Returns `hasNext` instead of a total; pass `includeTotal=true` for a cached approximate total.
+     * `search` matches names as in {@link #search} (same sorts, 503 while the index is built), and
+     * its total is exact.
+     */
+    @GetMapping(params = "slice=true")
+    public SliceResponse<ProductResponse> getAllAsSlice(
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "category", required = false) Long categoryId,
+            @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal,
+            Pageable pageable) {
+        return productService.searchSlice(search, categoryId, null, null, pageable, includeTotal);
+    }
+
+    /**
+     * Keyset paginated listing, selected by the presence of the `cursor` parameter.
+     *
+     * Pass an empty `cursor` for the first page, then the returned `nextCursor` until it is null.
+     * Only `size` and `sort` (id or price) are read from the pageable; `page` is ignored.
+     * `search` matches names as in {@link #search} (503 while the index is built).
+     */
+    @GetMapping(params = "cursor")
+    public CursorPageResponse<ProductResponse> getAllByCursor(
             @RequestParam(value = "search", required = false) String search,
             @RequestParam(value = "category", required = false) Long categoryId,
+            @RequestParam("cursor") String cursor,
             Pageable pageable) {
-        return productService.search(search, categoryId, null, null, pageable);
+        return productService.searchByCursor(search, categoryId, null, null, cursor, pageable);
     }
 
     /**
      * Search products with pagination and optional filters.
      *
      * Query parameters:
-     * - search: search by product name (contains, case-insensitive)
+     * - name: words to search for; each must match a word of the name or description by prefix
+     *   (case-insensitive). Answered with 503 and `Retry-After` while the search index is built.
      * - category: category id to filter by
      * - minPrice, maxPrice: price range filter
      *
@@ -77,10 +135,110 @@ public class ProductController {
         return productService.search(name, categoryId, minPrice, maxPrice, pageable);
     }
 
+    /**
+     * Typo-tolerant variant of {@link #search}, selected with `fuzzy=true`.
+     *
+     * Name words within a small edit distance match ("bakpack" finds "Backpack"); results are
+     * ordered by closeness unless a sort by id, price or name is given.
+     */
+    @GetMapping(value = "/search", params = "fuzzy=true")
+    public Page<ProductResponse> fuzzySearch(
+            @RequestParam(required = false) String name,
+            @RequestParam(value = "category", required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            Pageable pageable) {
+        return productService.fuzzySearch(name, categoryId, minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * Faceted variant of {@link #search}, selected with `facets=true`.
+     *
+     * Returns the same result page plus per-category and per-price-bucket counts. Bucket
+     * boundaries can be given as `priceBuckets=25,50,100`; otherwise the configured defaults apply.
+     */
+    @GetMapping(value = "/search", params = "facets=true")
+    public ProductSearchResponse searchWithFacets(
+            @RequestParam(required = false) String name,
+            @RequestParam(value = "category", required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<BigDecimal> priceBuckets,
+            Pageable pageable) {
+        return productService.searchWithFacets(name, categoryId, minPrice, maxPrice, priceBuckets, pageable);
+    }
+
+    /**
+     * Keyset paginated variant of {@link #search}, selected by the presence of the `cursor` parameter.
+     */
+    @GetMapping(value = "/search", params = "cursor")
+    public CursorPageResponse<ProductResponse> searchByCursor(
+            @RequestParam(required = false) String name,
+            @RequestParam(value = "category", required = false) Long categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam("cursor") String cursor,
+            Pageable pageable) {
+        return productService.searchByCursor(name, categoryId, minPrice, maxPrice, cursor, pageable);
+    }
+
+    /**
+     * Typeahead completions for a search box.
+     *
+     * Matches the start of any word of a product or category name and returns the best-selling
+     * matches first. Served from memory; `limit` is capped by `catalog.suggest.max-results`.
+     */
+    @GetMapping("/suggest")
+    public List<SuggestionResponse> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggest(prefix, limit);
+    }
+
+    /**
+     * Server-Sent Events feed of committed catalog changes.
+     *
+     * Emits `product-changed` (id, name, price, categoryId), `products-deleted` (productIds, one
+     * message per deletion however many products it removed) and `catalog-reloaded` (after a bulk
+     * import) events. Subscribers that fall more than `catalog.changes.buffer-size` messages behind
+     * are disconnected and should reconnect.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes() {
+        return catalogChangeBroadcaster.subscribe();
+    }
+
+    /**
+     * Resolve several products in one call, e.g. `ids=3,1,2`.
+     * Results keep the requested order; unknown ids are listed in `missingIds`.
+     */
+    @GetMapping("/batch")
+    public ProductBatchResponse getBatch(@RequestParam List<Long> ids) {
+        return productService.findBatch(ids);
+    }
+
+    /**
+     * Same as {@link #getBatch}, for id lists too long for a query string.
+     */
+    @PostMapping("/batch")
+    public ProductBatchResponse postBatch(@Valid @RequestBody ProductBatchRequest request) {
+        return productService.findBatch(request.getIds());
+    }
+
+    /**
+     * Products frequently bought together with this one, strongest first.
+     * Served from memory; `limit` is capped by `catalog.related.max-results`.
+     */
+    @GetMapping("/{id}/related")
+    public List<RelatedProductResponse> getRelated(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return productService.findRelated(id, limit);
+    }
+
     @GetMapping("/{id}")
     public ProductResponse getById(@PathVariable Long id) {
-        Product p = productService.findById(id);
-        return productService.toResponse(p);
+        return productService.findResponseById(id);
     }
 
     @PostMapping
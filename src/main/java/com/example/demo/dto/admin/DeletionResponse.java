@@ -0,0 +1,21 @@
+package com.example.demo.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row counts removed by a bulk category or product deletion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeletionResponse {
+    private Long categoryId;            // null for product deletions
+    private long productsDeleted;
+    private long cartItemsDeleted;
+    private long wishlistEntriesDeleted;
+    private long elapsedMs;
+}
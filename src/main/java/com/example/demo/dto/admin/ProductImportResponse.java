@@ -0,0 +1,30 @@
+package com.example.demo.dto.admin;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress or result of a bulk product import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResponse {
+    private String jobId;
+    private String format;
+    private String status;          // RUNNING, COMPLETED, FAILED
+    private LocalDateTime startedAt;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private int categoriesCreated;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<String> errors;    // first rejected rows / failure reason
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto.cart;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of PATCH /api/cart/items: line changes applied together, in order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartBatchRequest {
+
+    @NotEmpty
+    @Valid
+    private List<CartItemOperation> items;
+}
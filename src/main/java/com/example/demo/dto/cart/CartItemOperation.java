@@ -0,0 +1,36 @@
+package com.example.demo.dto.cart;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line change of a batch cart update.
+ * By default `quantity` replaces the line's quantity (zero or less removes the line);
+ * with `increment` it is added to the current quantity instead.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartItemOperation {
+
+    /** Largest quantity accepted per request, so line arithmetic stays far from int overflow. */
+    public static final int MAX_QUANTITY = 999;
+
+    @NotNull
+    private Long productId;
+
+    // negative values only make sense with `increment` (remove some units)
+    @NotNull
+    @Min(-MAX_QUANTITY)
+    @Max(MAX_QUANTITY)
+    private Integer quantity;
+
+    private boolean increment;
+}
@@ -18,4 +18,7 @@ public class CartItemResponse {
     private BigDecimal price;
     private String imageUrl;
     private Integer quantity;
+
+    // price * quantity
+    private BigDecimal lineTotal;
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -12,4 +13,13 @@ import java.util.List;
 @Builder
 public class CartResponse {
     private List<CartItemResponse> items;
+
+    // sum of quantities over all lines
+    private long itemCount;
+
+    // sum of line totals
+    private BigDecimal subtotal;
+
+    // amount charged at checkout (currently equal to the subtotal)
+    private BigDecimal total;
 }
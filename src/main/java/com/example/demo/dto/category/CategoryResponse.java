@@ -17,4 +17,7 @@ public class CategoryResponse {
     private Long id;
     private String name;
     private String description; // ✅ MAKE SURE THIS LINE EXISTS
+
+    // number of products in the category; only filled by the summary read path
+    private Long productCount;
 }
@@ -0,0 +1,38 @@
+package com.example.demo.dto.product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one entry of the catalog change feed (GET /api/products/changes).
+ * Deletions only carry the product ids; null fields are omitted to keep messages small.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogChangeResponse {
+
+    private Long productId;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Long categoryId;
+
+    // ids of the deleted products, for products-deleted messages
+    private List<Long> productIds;
+
+    // number of imported products, for catalog-reloaded messages
+    private Long imported;
+
+}
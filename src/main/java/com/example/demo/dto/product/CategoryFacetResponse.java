@@ -0,0 +1,26 @@
+package com.example.demo.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one category facet, e.g. "Electronics (124)".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryFacetResponse {
+
+    // category id; null for products without a category
+    private Long categoryId;
+
+    // category display name
+    private String name;
+
+    // number of matching products in this category
+    private long count;
+
+}
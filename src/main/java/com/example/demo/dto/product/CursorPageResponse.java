@@ -0,0 +1,31 @@
+package com.example.demo.dto.product;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one page of a keyset (cursor) paginated listing.
+ *
+ * Main concept:
+ * - Unlike a Spring `Page`, carries no total count; clients follow `nextCursor` until it is null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    // items of this page, in listing order
+    private List<T> items;
+
+    // opaque token to pass as `cursor` for the next page; null on the last page
+    private String nextCursor;
+
+    // requested page size
+    private int size;
+
+}
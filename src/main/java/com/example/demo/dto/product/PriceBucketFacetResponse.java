@@ -0,0 +1,28 @@
+package com.example.demo.dto.product;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one price-range facet, e.g. "$0–25 (80)". The range is [from, to).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceBucketFacetResponse {
+
+    // inclusive lower bound
+    private BigDecimal from;
+
+    // exclusive upper bound; null for the open-ended last bucket
+    private BigDecimal to;
+
+    // number of matching products in this range
+    private long count;
+
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto.product;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for looking up many products at once (POST /api/products/batch).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchRequest {
+
+    /** Product ids to resolve; results keep this order. */
+    @NotEmpty
+    private List<Long> ids;
+
+}
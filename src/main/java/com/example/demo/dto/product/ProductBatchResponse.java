@@ -0,0 +1,25 @@
+package com.example.demo.dto.product;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the result of a batch product lookup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchResponse {
+
+    // found products, in the order the ids were requested (duplicates removed)
+    private List<ProductResponse> items;
+
+    // requested ids that do not exist
+    private List<Long> missingIds;
+
+}
@@ -12,6 +12,8 @@ import lombok.NoArgsConstructor;
  *
  * Main concept:
  * - Shape the API response for product resources; decouple persistence model from API.
+ * - The all-args constructor is used by `SELECT new ...ProductResponse(...)` queries in
+ *   ProductRepository, so the field order below is part of that contract.
  */
 @Data
 @NoArgsConstructor
@@ -0,0 +1,30 @@
+package com.example.demo.dto.product;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a search result page together with its facet counts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSearchResponse {
+
+    // the requested page of results
+    private Page<ProductResponse> results;
+
+    // matching products per category (ignoring the category filter itself)
+    private List<CategoryFacetResponse> categoryFacets;
+
+    // matching products per price bucket (ignoring the price filter itself)
+    private List<PriceBucketFacetResponse> priceFacets;
+
+}
@@ -0,0 +1,30 @@
+package com.example.demo.dto.product;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a product frequently bought together with another product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelatedProductResponse {
+
+    private Long id;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private Long categoryId;
+
+    // number of orders containing both products (an upper-bound estimate)
+    private long score;
+
+}
@@ -0,0 +1,39 @@
+package com.example.demo.dto.product;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one page of a listing served without an exact total count.
+ *
+ * Main concept:
+ * - `hasNext` is computed by reading one row more than the page size, so no COUNT query runs.
+ * - `approximateTotal` is only filled when requested and comes from a periodically refreshed
+ *   cache; it may lag behind recent changes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SliceResponse<T> {
+
+    // items of this page
+    private List<T> content;
+
+    // zero-based page number
+    private int page;
+
+    // requested page size
+    private int size;
+
+    // whether at least one more item exists after this page
+    private boolean hasNext;
+
+    // cached, possibly stale total number of matching items (null unless requested)
+    private Long approximateTotal;
+
+}
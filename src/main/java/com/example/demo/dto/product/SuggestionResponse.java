@@ -0,0 +1,29 @@
+package com.example.demo.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one typeahead completion (a product or a category).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionResponse {
+
+    // PRODUCT or CATEGORY
+    private String type;
+
+    // product id or category id, depending on `type`
+    private Long id;
+
+    // display text (product or category name)
+    private String text;
+
+    // units sold; for categories, units sold across the category's products
+    private long weight;
+
+}
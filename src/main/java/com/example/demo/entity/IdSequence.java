@@ -0,0 +1,18 @@
+package com.example.demo.entity;
+
+/**
+ * Settings shared by the pooled id sequences of Product, Category, Order and OrderItem.
+ *
+ * Hibernate reserves ids in blocks of {@link #ALLOCATION_SIZE} (one sequence call per block),
+ * so new rows have their ids before the INSERT and inserts can be JDBC-batched; the block size
+ * matches `hibernate.jdbc.batch_size`. SequenceAligner uses the same size when it moves the
+ * sequences past existing rows.
+ */
+public final class IdSequence {
+
+    /** Ids reserved per sequence call; used as `allocationSize` of every @SequenceGenerator. */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdSequence() {
+    }
+}
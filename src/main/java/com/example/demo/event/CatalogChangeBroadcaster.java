@@ -0,0 +1,333 @@
+package com.example.demo.event;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.product.CatalogChangeResponse;
+import com.example.demo.entity.Product;
+
+/**
+ * Fans committed catalog changes out to Server-Sent Events subscribers.
+ *
+ * Main concept:
+ * - One broadcaster for the whole process: each change is serialized once and the same message
+ *   is queued for every subscriber.
+ * - Every subscriber has a small bounded queue drained by a shared pool of sender threads; a
+ *   subscriber is only scheduled when it has something to send, so idle connections cost an
+ *   emitter and an empty queue, and no thread.
+ * - A subscriber whose queue is full is too slow to keep up and is disconnected; clients are
+ *   expected to reconnect and resynchronize.
+ * - A send that blocks past `catalog.changes.send-timeout-ms` (a stalled client socket) is
+ *   abandoned: the subscriber is disconnected, the sender thread interrupted, and the pool gets a
+ *   replacement thread until that send returns, so stalled clients never starve the others.
+ * - Only the thread that owns a subscriber (its running drain, or the disconnecting thread when
+ *   no drain is scheduled) completes its emitter; completing blocks behind an in-flight send.
+ * - A comment line is sent periodically so proxies keep idle connections open and dead ones are
+ *   detected.
+ *
+ * Responsibilities:
+ * - Register subscribers ({@link #subscribe}) up to `catalog.changes.max-subscribers`.
+ * - Follow product change/delete events and bulk imports after commit.
+ */
+@Slf4j
+@Component
+public class CatalogChangeBroadcaster {
+
+    public static final String PRODUCT_CHANGED = "product-changed";
+    public static final String PRODUCTS_DELETED = "products-deleted";
+    public static final String CATALOG_RELOADED = "catalog-reloaded";
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private final ThreadPoolExecutor sender;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public CatalogChangeBroadcaster(ObjectMapper objectMapper,
+            @Value("${catalog.changes.buffer-size:64}") int bufferSize,
+            @Value("${catalog.changes.max-subscribers:10000}") int maxSubscribers,
+            @Value("${catalog.changes.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${catalog.changes.sender-threads:2}") int senderThreads,
+            @Value("${catalog.changes.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-changes-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Register a new subscriber.
+     *
+     * @throws ResponseStatusException 503 if `catalog.changes.max-subscribers` are already connected
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> disconnect(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Order(CatalogVersion.NOTIFY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getProduct();
+        broadcast(PRODUCT_CHANGED, CatalogChangeResponse.builder()
+                .productId(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
+                .build());
+    }
+
+    @Order(CatalogVersion.NOTIFY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        // one message for the whole deletion, however many products it removed
+        broadcast(PRODUCTS_DELETED, CatalogChangeResponse.builder()
+                .productIds(event.getProductIds())
+                .build());
+    }
+
+    @Order(CatalogVersion.NOTIFY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        broadcast(CATALOG_RELOADED, CatalogChangeResponse.builder()
+                .imported(event.getImportedProducts())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.changes.heartbeat-ms:25000}")
+    public void heartbeat() {
+        enqueue(new Message(0L, null, null));
+    }
+
+    /** Abandon sends that have blocked past the deadline. */
+    @Scheduled(fixedDelay = 1000)
+    public void enforceSendDeadline() {
+        long startedBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.expireSend(startedBefore)) {
+                dropped.incrementAndGet();
+                log.info("Dropping change feed subscriber stuck in a send for over {}ms ({} dropped so far)",
+                        sendTimeoutMillis, dropped.get());
+                addSender();
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void broadcast(String name, CatalogChangeResponse change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize catalog change {}: {}", name, e.getMessage());
+            return;
+        }
+        enqueue(new Message(sequence.incrementAndGet(), name, data));
+    }
+
+    private void enqueue(Message message) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(message, bufferSize)) {
+                dropped.incrementAndGet();
+                log.info("Dropping slow change feed subscriber ({} dropped so far)", dropped.get());
+                disconnect(subscriber);
+            } else if (subscriber.scheduled.compareAndSet(false, true)) {
+                sender.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    /* runs on a sender thread; at most one drain per subscriber at a time */
+    private void drain(Subscriber subscriber) {
+        Message message;
+        while (!subscriber.closed && (message = subscriber.poll()) != null) {
+            subscriber.beginSend();
+            try {
+                subscriber.emitter.send(message.name == null
+                        ? SseEmitter.event().comment("keepalive")
+                        : SseEmitter.event()
+                                .id(Long.toString(message.id))
+                                .name(message.name)
+                                .data(message.data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                // client went away or the emitter already completed
+                subscribers.remove(subscriber);
+                return;
+            } finally {
+                if (subscriber.endSend()) {
+                    // this thread was replaced while the send was overdue; give the slot back
+                    removeSender();
+                }
+            }
+        }
+        if (subscriber.closed) {
+            // disconnected while this drain owned the subscriber
+            subscriber.emitter.complete();
+            return;
+        }
+        subscriber.scheduled.set(false);
+        // a message (or a disconnect) may have arrived between the last check and clearing the flag
+        if ((subscriber.hasPending() || subscriber.closed) && subscriber.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.closed = true;
+        // a scheduled drain owns the emitter and completes it; otherwise nothing is sending
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    /* a thread stuck in an overdue send is replaced until that send returns */
+    private void addSender() {
+        synchronized (sender) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + 1);
+            sender.setCorePoolSize(sender.getCorePoolSize() + 1);
+        }
+    }
+
+    private void removeSender() {
+        synchronized (sender) {
+            sender.setCorePoolSize(sender.getCorePoolSize() - 1);
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private static final class Message {
+        private final long id;
+        private final String name;
+        private final String data;
+
+        Message(long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final ArrayDeque<Message> pending = new ArrayDeque<>(4);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        // send in progress; guarded by the subscriber's monitor
+        private Thread sendingThread;
+        private long sendStartedNanos;
+        private boolean sendExpired;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void beginSend() {
+            sendingThread = Thread.currentThread();
+            sendStartedNanos = System.nanoTime();
+        }
+
+        /* end the send; true if it was expired meanwhile */
+        synchronized boolean endSend() {
+            sendingThread = null;
+            if (!sendExpired) {
+                return false;
+            }
+            sendExpired = false;
+            // clear the interrupt aimed at this send before the thread moves on
+            Thread.interrupted();
+            return true;
+        }
+
+        /* expire a send started before `startedBefore` (System.nanoTime); true if it did */
+        synchronized boolean expireSend(long startedBefore) {
+            if (sendingThread == null || sendExpired || sendStartedNanos - startedBefore > 0) {
+                return false;
+            }
+            sendExpired = true;
+            // an interruptible write fails right away and closes the connection
+            sendingThread.interrupt();
+            return true;
+        }
+
+        synchronized boolean offer(Message message, int capacity) {
+            if (pending.size() >= capacity) {
+                return false;
+            }
+            pending.addLast(message);
+            return true;
+        }
+
+        synchronized Message poll() {
+            return pending.pollFirst();
+        }
+
+        synchronized boolean hasPending() {
+            return !pending.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after a bulk import added products.
+ *
+ * Listeners rebuild their in-memory views from the database once, instead of applying one
+ * {@link ProductChangedEvent} per imported row.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogImportedEvent {
+
+    private final long importedProducts;
+
+}
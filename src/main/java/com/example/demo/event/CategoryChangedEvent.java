@@ -0,0 +1,17 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import com.example.demo.entity.Category;
+
+/**
+ * Application event published after a category has been created or updated.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+
+    private final Category category;
+
+}
@@ -0,0 +1,18 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after a category has been deleted.
+ *
+ * Products removed together with the category are announced separately, with one
+ * {@link ProductsDeletedEvent}.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CategoryDeletedEvent {
+
+    private final Long categoryId;
+
+}
@@ -0,0 +1,22 @@
+package com.example.demo.event;
+
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after an order has been placed.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+
+    private final Long userId;
+
+    // ordered quantity per product id
+    private final Map<Long, Integer> quantitiesByProductId;
+
+}
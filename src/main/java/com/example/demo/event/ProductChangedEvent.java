@@ -0,0 +1,39 @@
+package com.example.demo.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import com.example.demo.entity.Product;
+
+/**
+ * Application event published after a product has been created or updated.
+ *
+ * Main concept:
+ * - Lets in-memory catalog structures (indexes, caches) follow product mutations without the
+ *   mutating code knowing about each of them.
+ *
+ * Listeners should treat the carried entity as read-only.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    private final Product product;
+
+    // category id before this change; null for new products and products without a category
+    private final Long previousCategoryId;
+
+    // true if this change created the product
+    private final boolean created;
+
+    /** Event for a newly created product. */
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(product, null, true);
+    }
+
+    /** Event for an updated product that belonged to `previousCategoryId` before the update. */
+    public static ProductChangedEvent updated(Product product, Long previousCategoryId) {
+        return new ProductChangedEvent(product, previousCategoryId, false);
+    }
+
+}
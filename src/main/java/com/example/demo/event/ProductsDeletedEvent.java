@@ -0,0 +1,24 @@
+package com.example.demo.event;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Application event published after products have been deleted: once per deletion (a category
+ * with its products, or a batch of products), however many products it removed.
+ *
+ * Listeners apply all removals in one pass instead of handling one event per product.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductsDeletedEvent {
+
+    private final List<Long> productIds;
+
+    // number of deleted products per category they belonged to; products without one are not counted
+    private final Map<Long, Integer> deletedPerCategory;
+
+}
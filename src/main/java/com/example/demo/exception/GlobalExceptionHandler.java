@@ -7,12 +7,16 @@ import java.util.Map;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterValidationResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import com.example.demo.dto.common.ApiError;
 
@@ -25,8 +29,10 @@ import com.example.demo.dto.common.ApiError;
  *
  * Responsibilities:
  * - Handle validation failures (`MethodArgumentNotValidException`) and return HTTP 400 with
- *   a map of field errors.
+ *   a map of field errors; the same for constraint violations on request parameters
+ *   (`HandlerMethodValidationException`).
  * - Handle `EntityNotFoundException` and return HTTP 404.
+ * - Handle `SearchUnavailableException` and return HTTP 503 with a `Retry-After` header.
  * - Construct an `ApiError` object containing timestamp, status, message, path, etc.
  */
 @RestControllerAdvice
@@ -61,6 +67,37 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiError);
     }
 
+    /**
+     * Handle constraint violations on request parameters (e.g. `@Min` on a `@RequestParam`).
+     *
+     * @param ex the HandlerMethodValidationException
+     * @param request the HttpServletRequest
+     * @return ResponseEntity containing ApiError with HTTP 400
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ApiError> handleParameterValidation(HandlerMethodValidationException ex,
+            HttpServletRequest request) {
+        // collect parameter errors into a map keyed by parameter name
+        Map<String, String> errors = new HashMap<>();
+        for (ParameterValidationResult result : ex.getParameterValidationResults()) {
+            String parameter = result.getMethodParameter().getParameterName();
+            for (MessageSourceResolvable error : result.getResolvableErrors()) {
+                errors.put(parameter, error.getDefaultMessage());
+            }
+        }
+
+        ApiError apiError = ApiError.builder()
+                .timestamp(Instant.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message("Validation failed")
+                .path(request.getRequestURI())
+                .validationErrors(errors)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(apiError);
+    }
+
     /**
      * Handle cases where an entity wasn't found in the database.
      *
@@ -82,4 +119,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(apiError);
     }
 
+    /**
+     * Handle searches that cannot be answered until the in-memory search structures are built.
+     *
+     * @param ex the SearchUnavailableException
+     * @param request the HttpServletRequest
+     * @return ResponseEntity containing ApiError with HTTP 503 and a Retry-After header
+     */
+    @ExceptionHandler(SearchUnavailableException.class)
+    public ResponseEntity<ApiError> handleSearchUnavailable(SearchUnavailableException ex, HttpServletRequest request) {
+        // build ApiError payload
+        ApiError apiError = ApiError.builder()
+                .timestamp(Instant.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(apiError);
+    }
+
 }
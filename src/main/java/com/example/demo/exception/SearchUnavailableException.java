@@ -0,0 +1,21 @@
+package com.example.demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a search cannot be answered yet because the in-memory structures it depends on
+ * are still being built (e.g. right after startup).
+ *
+ * Mapped to HTTP 503 with a `Retry-After` header by {@link GlobalExceptionHandler}.
+ */
+@Getter
+public class SearchUnavailableException extends RuntimeException {
+
+    /** Seconds after which the client should retry. */
+    private final int retryAfterSeconds;
+
+    public SearchUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
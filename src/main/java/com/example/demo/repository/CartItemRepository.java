@@ -2,17 +2,23 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
-import java.util.Optional;
 
+/**
+ * Cart rows are written by {@link com.example.demo.cart.CartStore} with batched JDBC upserts;
+ * this repository only reads them back.
+ */
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
-    
-    @EntityGraph(attributePaths = {"product", "user"})
-    List<CartItem> findByUserId(Long userId);
-    
-    @EntityGraph(attributePaths = {"product", "user"})
-    Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
-    
-    void deleteByUserIdAndProductId(Long userId, Long productId);
+
+    // (product id, quantity) lines of a user's cart, without loading entities
+    @Query("SELECT ci.product.id AS productId, ci.quantity AS quantity FROM CartItem ci WHERE ci.user.id = :userId ORDER BY ci.id")
+    List<CartLineView> findLinesByUserId(@Param("userId") Long userId);
+
+    // Projection for cart lines
+    interface CartLineView {
+        Long getProductId();
+        Integer getQuantity();
+    }
 }
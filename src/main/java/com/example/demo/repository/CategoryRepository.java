@@ -2,8 +2,11 @@ package com.example.demo.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
 import java.util.Optional;
 
+import com.example.demo.dto.category.CategoryResponse;
 import com.example.demo.entity.Category;
 
 /**
@@ -13,4 +16,11 @@ import com.example.demo.entity.Category;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 	Optional<Category> findByName(String name);
 
+	// id, name, description and product count of every category in one grouped query;
+	// joins products in SQL without initializing Category.products
+	@Query("SELECT new com.example.demo.dto.category.CategoryResponse(c.id, c.name, c.description, COUNT(p.id)) " +
+	       "FROM Category c LEFT JOIN Product p ON p.category = c " +
+	       "GROUP BY c.id, c.name, c.description ORDER BY c.id")
+	List<CategoryResponse> findAllSummaries();
+
 }
@@ -11,6 +11,19 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 	@org.springframework.data.jpa.repository.Query("SELECT oi.product.id as productId, oi.product.name as productName, SUM(oi.quantity) as totalSold FROM OrderItem oi GROUP BY oi.product.id, oi.product.name ORDER BY SUM(oi.quantity) DESC")
 	java.util.List<BestSellerProjection> findBestSellingProducts(org.springframework.data.domain.Pageable pageable);
 
+	// Units sold per product, used to weight search suggestions
+	@org.springframework.data.jpa.repository.Query("SELECT oi.product.id as productId, SUM(oi.quantity) as totalSold FROM OrderItem oi GROUP BY oi.product.id")
+	java.util.List<ProductSalesView> findSalesPerProduct();
+
+	// (order id, product id) of every order line, grouped by order; read through a forward-only cursor
+	// and only inside a transaction. Used to seed the co-purchase index.
+	@org.springframework.data.jpa.repository.QueryHints({
+		@jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@jakarta.persistence.QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@org.springframework.data.jpa.repository.Query("SELECT oi.order.id as orderId, oi.product.id as productId FROM OrderItem oi ORDER BY oi.order.id")
+	java.util.stream.Stream<OrderLineView> streamOrderLines();
+
 	// Projection for best-seller query
 	interface BestSellerProjection {
 		Long getProductId();
@@ -18,4 +31,16 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 		Long getTotalSold();
 	}
 
+	// Projection for per-product sales totals
+	interface ProductSalesView {
+		Long getProductId();
+		Long getTotalSold();
+	}
+
+	// Projection for order lines (order id, product id)
+	interface OrderLineView {
+		Long getOrderId();
+		Long getProductId();
+	}
+
 }
@@ -2,14 +2,25 @@ package com.example.demo.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.query.Param;
 
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
+
+import com.example.demo.dto.product.ProductResponse;
 import com.example.demo.entity.Product;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Product entities.
@@ -23,6 +34,11 @@ import java.math.BigDecimal;
  */
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Select clause for queries that build ProductResponse DTOs directly; alias `p` = product, `c` = category
+    String RESPONSE_SELECT = "SELECT new com.example.demo.dto.product.ProductResponse(" +
+            "p.id, p.name, p.description, p.price, p.imageUrl, c.id, c.name) " +
+            "FROM Product p LEFT JOIN p.category c ";
+
     // Find products whose name contains the given text (case-insensitive) with pagination
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
@@ -30,9 +46,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByCategory_NameContainingIgnoreCase(String categoryName, Pageable pageable);
 
     // Find products by category id with pagination
+    @EntityGraph(attributePaths = {"category"})
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
     // Find products by category id and price range with pagination
+    @EntityGraph(attributePaths = {"category"})
     Page<Product> findByCategoryIdAndPriceBetween(Long categoryId, BigDecimal min, BigDecimal max, Pageable pageable);
 
     // Find products by category name (contains) and price between min and max with pagination
@@ -40,6 +58,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             BigDecimal max, Pageable pageable);
 
     // Find products whose price is between min and max with pagination
+    @EntityGraph(attributePaths = {"category"})
     Page<Product> findByPriceBetween(BigDecimal min, BigDecimal max, Pageable pageable);
 
     // Find all products with their categories in one query
@@ -65,4 +84,170 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @EntityGraph(attributePaths = {"category"})
     @Override
     Page<Product> findAll(Pageable pageable);
+
+    // Category and price filters of searchWithCategory, returned as a Slice: reads size + 1 rows, no count query.
+    // Name searches go through the text index instead (see ProductService)
+    @Query(RESPONSE_SELECT +
+           "WHERE (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price <= :maxPrice)")
+    Slice<ProductResponse> sliceWithCategory(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable pageable
+    );
+
+    // Count products matching the sliceWithCategory filters, without joining categories
+    @Query("SELECT COUNT(p) FROM Product p " +
+           "WHERE (:categoryId IS NULL OR p.category.id = :categoryId) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price <= :maxPrice)")
+    long countMatching(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice
+    );
+
+    // Keyset (seek) pagination: rows after the given id, ordered by id.
+    // Pass PageRequest.of(0, limit) to bound the result; no count query is issued.
+    @Query(RESPONSE_SELECT +
+           "WHERE p.id > :afterId " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+           "ORDER BY p.id ASC")
+    List<ProductResponse> seekById(
+        @Param("afterId") long afterId,
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable limit
+    );
+
+    // Keyset pagination ordered by id descending: rows before the given id
+    @Query(RESPONSE_SELECT +
+           "WHERE p.id < :beforeId " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+           "ORDER BY p.id DESC")
+    List<ProductResponse> seekByIdDesc(
+        @Param("beforeId") long beforeId,
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable limit
+    );
+
+    // Keyset pagination ordered by (price, id) ascending
+    @Query(RESPONSE_SELECT +
+           "WHERE (p.price, p.id) > (:afterPrice, :afterId) " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductResponse> seekByPriceAsc(
+        @Param("afterPrice") BigDecimal afterPrice,
+        @Param("afterId") long afterId,
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable limit
+    );
+
+    // Keyset pagination ordered by (price, id) descending
+    @Query(RESPONSE_SELECT +
+           "WHERE (p.price, p.id) < (:afterPrice, :afterId) " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<ProductResponse> seekByPriceDesc(
+        @Param("afterPrice") BigDecimal afterPrice,
+        @Param("afterId") long afterId,
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Pageable limit
+    );
+
+    // Load a set of products (e.g. one page of index hits) as response DTOs in one query
+    @Query(RESPONSE_SELECT + "WHERE p.id IN :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ============================================
+    // DTO PROJECTIONS
+    // Same filters as the entity queries above, but building ProductResponse straight from the
+    // selected columns: no managed entities, no category proxies, no dirty-checking snapshots.
+    // ============================================
+
+    // Single product as a response DTO
+    @Query(RESPONSE_SELECT + "WHERE p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Long id);
+
+    // All products, paged
+    @Query(value = RESPONSE_SELECT,
+           countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductResponse> findAllResponses(Pageable pageable);
+
+    // Products of a category, paged
+    @Query(value = RESPONSE_SELECT + "WHERE c.id = :categoryId",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
+    Page<ProductResponse> findResponsesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    // Products of a category within a price range, paged
+    @Query(value = RESPONSE_SELECT + "WHERE c.id = :categoryId AND p.price BETWEEN :min AND :max",
+           countQuery = "SELECT COUNT(p) FROM Product p " +
+                        "WHERE p.category.id = :categoryId AND p.price BETWEEN :min AND :max")
+    Page<ProductResponse> findResponsesByCategoryIdAndPriceBetween(
+        @Param("categoryId") Long categoryId,
+        @Param("min") BigDecimal min,
+        @Param("max") BigDecimal max,
+        Pageable pageable
+    );
+
+    // Products within a price range, paged
+    @Query(value = RESPONSE_SELECT + "WHERE p.price BETWEEN :min AND :max",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.price BETWEEN :min AND :max")
+    Page<ProductResponse> findResponsesByPriceBetween(
+        @Param("min") BigDecimal min,
+        @Param("max") BigDecimal max,
+        Pageable pageable
+    );
+
+    // Every product with its category in id order, read through a forward-only cursor.
+    // Must be consumed inside a (read-only) transaction and closed; rows are fetched in chunks
+    // of the fetch size instead of being materialized at once.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAllForExport();
+
+    // Text columns of every product, used to build the in-memory text index
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description FROM Product p")
+    List<ProductTextView> findAllTextViews();
+
+    // Filterable columns of every product in id order, used to build the in-memory catalog snapshot
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, c.id AS categoryId, c.name AS categoryName " +
+           "FROM Product p LEFT JOIN p.category c ORDER BY p.id")
+    List<ProductSnapshotView> findAllSnapshotViews();
+
+    // Projection for the catalog snapshot build
+    interface ProductSnapshotView {
+        Long getId();
+        String getName();
+        BigDecimal getPrice();
+        Long getCategoryId();
+        String getCategoryName();
+    }
+
+    // Projection for the text index build
+    interface ProductTextView {
+        Long getId();
+        String getName();
+        String getDescription();
+    }
 }
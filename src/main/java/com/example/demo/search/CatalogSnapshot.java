@@ -0,0 +1,755 @@
+package com.example.demo.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.cart.CartPricing;
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Product;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * Read-optimized in-memory view of the catalog's filterable and sortable attributes.
+ *
+ * Main concept:
+ * - Each product gets a dense ordinal; attributes live in parallel primitive columns
+ *   (id, price in cents, category slot, interned name) instead of JPA entities.
+ * - Ordinals are handed out in id order (the build reads rows ordered by id and new products get
+ *   higher ids), so "sort by id" is a plain walk over a bitmap. Deleted ordinals are left as holes
+ *   and reclaimed by compaction once they outnumber live ones.
+ * - Categories get small dense "slots"; every slot owns a bitmap of the ordinals in that
+ *   category, so category-restricted work only touches the relevant products.
+ * - Price and name orderings are kept as sorted ordinal permutations, built lazily on the first
+ *   query that needs them after a mutation.
+ *
+ * Responsibilities:
+ * - Build from the database once the application is ready and follow product/category events
+ *   (rebuilds replay the events that arrive while they read, see {@link ReplayingRebuild}).
+ * - Evaluate category/price filters and sorts without touching entities ({@link #query}).
+ * - Compute category and price-bucket facet counts in one pass over a matching set.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshot {
+
+    /** Slot used for products without a category. */
+    private static final int NO_CATEGORY = 0;
+
+    /** Dead ordinals tolerated before the columns are compacted. */
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    /** Amounts whose cents fall outside the `long` range; filter bounds beyond them are clamped. */
+    private static final BigDecimal MIN_BOUND = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+    private static final BigDecimal MAX_BOUND = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    /** Orderings {@link #query} can produce. */
+    public enum SortKey {
+        ID,
+        PRICE,
+        NAME
+    }
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // product columns, indexed by ordinal
+    private final LongIntHashMap ordinals = new LongIntHashMap();
+    private final BitSet live = new BitSet();
+    private long[] ids = new long[1024];
+    private long[] priceCents = new long[1024];
+    private int[] categorySlots = new int[1024];
+    private String[] names = new String[1024];
+    private int nextOrdinal;
+    private int deadCount;
+
+    // false once a product arrived out of id order; ID sorting then needs a permutation too
+    private boolean ordinalsInIdOrder = true;
+
+    // sorted permutations of live ordinals, indexed by SortKey.ordinal(); null = needs rebuild
+    private final int[][] sortOrders = new int[SortKey.values().length][];
+
+    // category columns, indexed by slot
+    private final LongIntHashMap slotsByCategoryId = new LongIntHashMap(64);
+    private long[] categoryIdBySlot = new long[16];
+    private String[] categoryNameBySlot = new String[16];
+    private BitSet[] categoryBitmaps = new BitSet[16];
+    private int slotCount = 1;
+
+    private final ReplayingRebuild rebuilds = new ReplayingRebuild(lock);
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductRepository.ProductSnapshotView> rows = rebuilds.rebuild(productRepository::findAllSnapshotViews, read -> {
+            ordinals.clear();
+            live.clear();
+            nextOrdinal = 0;
+            deadCount = 0;
+            ordinalsInIdOrder = true;
+            Arrays.fill(names, null);
+            Arrays.fill(sortOrders, null);
+            slotsByCategoryId.clear();
+            Arrays.fill(categoryBitmaps, null);
+            categoryBitmaps[NO_CATEGORY] = new BitSet();
+            slotCount = 1;
+            for (ProductRepository.ProductSnapshotView row : read) {
+                upsert(row.getId(), row.getName(), row.getPrice(), row.getCategoryId(), row.getCategoryName());
+            }
+            ready = true;
+        });
+        log.info("Catalog snapshot built: {} products, {} categories in {}ms",
+                rows.size(), slotCount - 1, System.currentTimeMillis() - start);
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getProduct();
+        Category category = product.getCategory();
+        Long categoryId = category != null ? category.getId() : null;
+        String categoryName = category != null ? category.getName() : null;
+        rebuilds.apply(() -> upsert(product.getId(), product.getName(), product.getPrice(), categoryId, categoryName));
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        rebuilds.apply(() -> remove(productIds));
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.getCategory().getId();
+        String name = event.getCategory().getName();
+        rebuilds.apply(() -> {
+            int slot = slotsByCategoryId.get(categoryId, -1);
+            if (slot >= 0) {
+                categoryNameBySlot[slot] = name;
+            }
+        });
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        rebuild();
+    }
+
+    /** Whether the initial build has completed and the snapshot can answer queries. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Filter, sort and page the catalog, returning only the ids of the requested page.
+     *
+     * Main concept:
+     * - The scan reads primitive columns only; the single allocation is the page-sized result.
+     * - With `rankedIds` and no `sort`, results keep the ranking order (e.g. text relevance);
+     *   with a `sort`, the ranked ids only act as a filter.
+     *
+     * @param rankedIds ids matched by a text query in ranking order, or null for the whole catalog
+     * @param categoryId category filter, or null
+     * @param minCents lower price bound in cents (inclusive)
+     * @param maxCents upper price bound in cents (inclusive)
+     * @param sort ordering, or null for ranking order (id order when `rankedIds` is null)
+     * @param descending reverse the ordering; ties are broken by id in the same direction
+     * @param offset number of matching rows to skip
+     * @param limit maximum number of ids to return
+     */
+    public QueryResult query(long[] rankedIds, Long categoryId, long minCents, long maxCents,
+            SortKey sort, boolean descending, long offset, int limit) {
+        if (rankedIds == null && sort == null) {
+            sort = SortKey.ID;
+        }
+        readLockSorted(sort);
+        try {
+            int categoryFilter = -1;
+            if (categoryId != null) {
+                categoryFilter = slotsByCategoryId.get(categoryId, -1);
+                if (categoryFilter < 0) {
+                    return new QueryResult(new long[0], 0);
+                }
+            }
+            Page page = new Page(offset, limit);
+
+            if (rankedIds != null && sort == null) {
+                for (long id : rankedIds) {
+                    int ord = ordinals.get(id, -1);
+                    if (ord >= 0 && matches(ord, categoryFilter, minCents, maxCents)) {
+                        page.offer(id);
+                    }
+                }
+                return page.result();
+            }
+
+            BitSet textFilter = rankedIds == null ? null : toOrdinalSet(rankedIds);
+            int[] order = sort == null ? null : sortOrders[sort.ordinal()];
+            if (order == null) {
+                // ID sort while ordinals are in id order: walk the narrowest bitmap
+                BitSet scan = categoryFilter >= 0 ? categoryBitmaps[categoryFilter] : live;
+                if (descending) {
+                    for (int ord = scan.previousSetBit(nextOrdinal - 1); ord >= 0; ord = scan.previousSetBit(ord - 1)) {
+                        if ((textFilter == null || textFilter.get(ord)) && matches(ord, categoryFilter, minCents, maxCents)) {
+                            page.offer(ids[ord]);
+                        }
+                    }
+                } else {
+                    for (int ord = scan.nextSetBit(0); ord >= 0; ord = scan.nextSetBit(ord + 1)) {
+                        if ((textFilter == null || textFilter.get(ord)) && matches(ord, categoryFilter, minCents, maxCents)) {
+                            page.offer(ids[ord]);
+                        }
+                    }
+                }
+            } else {
+                int n = order.length;
+                for (int i = 0; i < n; i++) {
+                    int ord = order[descending ? n - 1 - i : i];
+                    if ((textFilter == null || textFilter.get(ord)) && matches(ord, categoryFilter, minCents, maxCents)) {
+                        page.offer(ids[ord]);
+                    }
+                }
+            }
+            return page.result();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant of {@link #query}: up to `limit` matching ids that come strictly after the
+     * row (`afterCents`, `afterId`) in `sort` order, ties broken by id in the same direction.
+     *
+     * The start position is found by binary search over the sort order, so the cost of a page
+     * does not depend on how deep it is. `afterCents` is only used for {@link SortKey#PRICE};
+     * {@link SortKey#NAME} is not supported.
+     *
+     * @param matchingIds ids matched by a text query (in any order), or null for the whole catalog
+     */
+    public long[] seek(long[] matchingIds, Long categoryId, long minCents, long maxCents,
+            SortKey sort, boolean descending, long afterCents, long afterId, int limit) {
+        if (sort == SortKey.NAME) {
+            throw new IllegalArgumentException("Seek by name is not supported");
+        }
+        readLockSorted(sort);
+        try {
+            int categoryFilter = -1;
+            if (categoryId != null) {
+                categoryFilter = slotsByCategoryId.get(categoryId, -1);
+                if (categoryFilter < 0) {
+                    return new long[0];
+                }
+            }
+            BitSet textFilter = matchingIds == null ? null : toOrdinalSet(matchingIds);
+            // without a permutation, ordinals are in id order (dead ones keep their id)
+            int[] order = sortOrders[sort.ordinal()];
+            int n = order != null ? order.length : nextOrdinal;
+            int step = descending ? -1 : 1;
+            int position = descending
+                    ? countBefore(order, n, sort, afterCents, afterId, false) - 1
+                    : countBefore(order, n, sort, afterCents, afterId, true);
+
+            long[] page = new long[Math.max(0, limit)];
+            int size = 0;
+            for (; position >= 0 && position < n && size < page.length; position += step) {
+                int ord = order != null ? order[position] : position;
+                if (live.get(ord) && (textFilter == null || textFilter.get(ord))
+                        && matches(ord, categoryFilter, minCents, maxCents)) {
+                    page[size++] = ids[ord];
+                }
+            }
+            return size == page.length ? page : Arrays.copyOf(page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count facets over a matching set in a single pass.
+     *
+     * Category counts honour the price filter but not the category filter, and bucket counts
+     * honour the category filter but not the price filter, so clients can show alternatives for
+     * the dimension the user is currently filtering on.
+     *
+     * @param matchingIds product ids matched by the text query, or null for the whole catalog
+     * @param categoryId category filter, or null
+     * @param minCents lower price bound in cents (inclusive)
+     * @param maxCents upper price bound in cents (inclusive)
+     * @param bucketBounds ascending bucket boundaries in cents; bucket i covers [bounds[i-1], bounds[i])
+     */
+    public FacetCounts facets(long[] matchingIds, Long categoryId, long minCents, long maxCents, long[] bucketBounds) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = matchingIds == null ? live : toOrdinalSet(matchingIds);
+            int categoryFilter = categoryId == null ? -1 : slotsByCategoryId.get(categoryId, Integer.MAX_VALUE);
+
+            int[] categoryCounts = new int[slotCount];
+            int[] bucketCounts = new int[bucketBounds.length + 1];
+            for (int ord = matching.nextSetBit(0); ord >= 0; ord = matching.nextSetBit(ord + 1)) {
+                long price = priceCents[ord];
+                int slot = categorySlots[ord];
+                if (price >= minCents && price <= maxCents) {
+                    categoryCounts[slot]++;
+                }
+                if (categoryFilter < 0 || slot == categoryFilter) {
+                    int bucket = Arrays.binarySearch(bucketBounds, price);
+                    bucketCounts[bucket >= 0 ? bucket + 1 : -bucket - 1]++;
+                }
+            }
+
+            long[] categoryIds = Arrays.copyOf(categoryIdBySlot, slotCount);
+            String[] categoryNames = Arrays.copyOf(categoryNameBySlot, slotCount);
+            return new FacetCounts(categoryIds, categoryNames, categoryCounts, bucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Name, price and category of the given products, in the given order.
+     * Ids that are not (or no longer) in the snapshot are skipped.
+     */
+    public Rows rows(long[] productIds) {
+        lock.readLock().lock();
+        try {
+            int n = 0;
+            int[] found = new int[productIds.length];
+            for (long id : productIds) {
+                int ord = ordinals.get(id, -1);
+                if (ord >= 0 && live.get(ord)) {
+                    found[n++] = ord;
+                }
+            }
+            long[] rowIds = new long[n];
+            String[] rowNames = new String[n];
+            long[] rowPrices = new long[n];
+            Long[] rowCategories = new Long[n];
+            for (int i = 0; i < n; i++) {
+                int ord = found[i];
+                int slot = categorySlots[ord];
+                rowIds[i] = ids[ord];
+                rowNames[i] = names[ord];
+                rowPrices[i] = priceCents[ord];
+                rowCategories[i] = slot == NO_CATEGORY ? null : categoryIdBySlot[slot];
+            }
+            return new Rows(rowIds, rowNames, rowPrices, rowCategories);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower price filter bound in cents, or no bound for null. Rounded up, so `price >= minCents`
+     * matches exactly the prices at or above `minPrice`; amounts beyond the `long` range are clamped.
+     */
+    public static long minCents(BigDecimal minPrice) {
+        return minPrice == null ? Long.MIN_VALUE : boundCents(minPrice, RoundingMode.CEILING);
+    }
+
+    /**
+     * Upper price filter bound in cents, or no bound for null. Rounded down, so `price <= maxCents`
+     * matches exactly the prices at or below `maxPrice`; amounts beyond the `long` range are clamped.
+     */
+    public static long maxCents(BigDecimal maxPrice) {
+        return maxPrice == null ? Long.MAX_VALUE : boundCents(maxPrice, RoundingMode.FLOOR);
+    }
+
+    /* whole cents of a client-supplied amount, rounded with `mode` (CEILING or FLOOR) and clamped */
+    private static long boundCents(BigDecimal amount, RoundingMode mode) {
+        if (amount.compareTo(MAX_BOUND) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (amount.compareTo(MIN_BOUND) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        if (amount.precision() - amount.scale() <= -2) {
+            // below one cent in magnitude; decided by sign without rescaling, as the scale may be huge
+            int sign = amount.signum();
+            return mode == RoundingMode.CEILING ? Math.max(sign, 0) : Math.min(sign, 0);
+        }
+        return amount.movePointRight(2).setScale(0, mode).longValue();
+    }
+
+    // ============================================
+    // QUERY HELPERS (caller holds a lock)
+    // ============================================
+
+    private boolean matches(int ord, int categoryFilter, long minCents, long maxCents) {
+        long price = priceCents[ord];
+        return (categoryFilter < 0 || categorySlots[ord] == categoryFilter)
+                && price >= minCents && price <= maxCents;
+    }
+
+    private BitSet toOrdinalSet(long[] productIds) {
+        BitSet set = new BitSet(nextOrdinal);
+        for (long id : productIds) {
+            int ord = ordinals.get(id, -1);
+            if (ord >= 0) {
+                set.set(ord);
+            }
+        }
+        return set;
+    }
+
+    /* number of positions in ascending sort order whose (price, id) is below the key, or not above it */
+    private int countBefore(int[] order, int n, SortKey sort, long cents, long id, boolean inclusive) {
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int ord = order != null ? order[mid] : mid;
+            int c = sort == SortKey.PRICE ? Long.compare(priceCents[ord], cents) : 0;
+            if (c == 0) {
+                c = Long.compare(ids[ord], id);
+            }
+            if (c < 0 || (inclusive && c == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /* take the read lock with the permutation for `sort` built (null: none needed) */
+    private void readLockSorted(SortKey sort) {
+        lock.readLock().lock();
+        if (sort != null && needsSortOrder(sort)) {
+            // upgrade to build the permutation, then downgrade (ReentrantReadWriteLock idiom)
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                ensureSortOrder(sort);
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private boolean needsSortOrder(SortKey sort) {
+        if (sort == SortKey.ID && ordinalsInIdOrder) {
+            return false;
+        }
+        return sortOrders[sort.ordinal()] == null;
+    }
+
+    /* caller holds the write lock */
+    private void ensureSortOrder(SortKey sort) {
+        if (!needsSortOrder(sort)) {
+            return;
+        }
+        long start = System.nanoTime();
+        int[] order = new int[live.cardinality()];
+        int n = 0;
+        for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1)) {
+            order[n++] = ord;
+        }
+        OrdinalComparator comparator = switch (sort) {
+            case ID -> (a, b) -> Long.compare(ids[a], ids[b]);
+            case PRICE -> (a, b) -> {
+                int c = Long.compare(priceCents[a], priceCents[b]);
+                return c != 0 ? c : Long.compare(ids[a], ids[b]);
+            };
+            case NAME -> (a, b) -> {
+                int c = String.CASE_INSENSITIVE_ORDER.compare(names[a], names[b]);
+                return c != 0 ? c : Long.compare(ids[a], ids[b]);
+            };
+        };
+        mergeSort(order, new int[order.length], 0, order.length, comparator);
+        sortOrders[sort.ordinal()] = order;
+        log.debug("Catalog snapshot sort order {} rebuilt over {} products in {}us",
+                sort, order.length, (System.nanoTime() - start) / 1000);
+    }
+
+    /* stable merge sort of ordinals; avoids boxing into Integer[] for a Comparator */
+    private static void mergeSort(int[] a, int[] tmp, int from, int to, OrdinalComparator cmp) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, tmp, from, mid, cmp);
+        mergeSort(a, tmp, mid, to, cmp);
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && cmp.compare(tmp[i], tmp[j]) <= 0)) {
+                a[k] = tmp[i++];
+            } else {
+                a[k] = tmp[j++];
+            }
+        }
+    }
+
+    // ============================================
+    // MAINTENANCE (caller holds the write lock)
+    // ============================================
+
+    private void upsert(Long id, String name, BigDecimal price, Long categoryId, String categoryName) {
+        if (id == null) {
+            return;
+        }
+        int ordinal = ordinals.get(id, -1);
+        if (ordinal >= 0) {
+            categoryBitmaps[categorySlots[ordinal]].clear(ordinal);
+        } else {
+            ordinal = allocateOrdinal(id);
+        }
+        int slot = slotFor(categoryId, categoryName);
+        priceCents[ordinal] = CartPricing.toCents(price);
+        categorySlots[ordinal] = slot;
+        names[ordinal] = name != null ? name.intern() : "";
+        categoryBitmaps[slot].set(ordinal);
+        live.set(ordinal);
+        Arrays.fill(sortOrders, null);
+    }
+
+    /* sort orders are dropped and compaction considered once for the whole batch */
+    private void remove(List<Long> productIds) {
+        int removed = 0;
+        for (Long id : productIds) {
+            int ordinal = ordinals.remove(id, -1);
+            if (ordinal < 0) {
+                continue;
+            }
+            live.clear(ordinal);
+            categoryBitmaps[categorySlots[ordinal]].clear(ordinal);
+            names[ordinal] = null;
+            removed++;
+        }
+        if (removed == 0) {
+            return;
+        }
+        deadCount += removed;
+        Arrays.fill(sortOrders, null);
+        if (deadCount >= COMPACT_MIN_DEAD && deadCount > ordinals.size()) {
+            compact();
+        }
+    }
+
+    private int allocateOrdinal(Long id) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == ids.length) {
+            ids = Arrays.copyOf(ids, ordinal * 2);
+            priceCents = Arrays.copyOf(priceCents, ordinal * 2);
+            categorySlots = Arrays.copyOf(categorySlots, ordinal * 2);
+            names = Arrays.copyOf(names, ordinal * 2);
+        }
+        if (ordinal > 0 && id < ids[ordinal - 1]) {
+            ordinalsInIdOrder = false;
+        }
+        ids[ordinal] = id;
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    /* squeeze out dead ordinals, keeping the relative order of live ones */
+    private void compact() {
+        int target = 0;
+        for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1), target++) {
+            ids[target] = ids[ord];
+            priceCents[target] = priceCents[ord];
+            categorySlots[target] = categorySlots[ord];
+            names[target] = names[ord];
+        }
+        Arrays.fill(names, target, nextOrdinal, null);
+        nextOrdinal = target;
+        deadCount = 0;
+        live.clear();
+        live.set(0, target);
+        ordinals.clear();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (categoryBitmaps[slot] != null) {
+                categoryBitmaps[slot].clear();
+            }
+        }
+        for (int ord = 0; ord < target; ord++) {
+            ordinals.put(ids[ord], ord);
+            categoryBitmaps[categorySlots[ord]].set(ord);
+        }
+        log.debug("Catalog snapshot compacted to {} ordinals", target);
+    }
+
+    private int slotFor(Long categoryId, String categoryName) {
+        if (categoryId == null) {
+            if (categoryBitmaps[NO_CATEGORY] == null) {
+                categoryBitmaps[NO_CATEGORY] = new BitSet();
+            }
+            return NO_CATEGORY;
+        }
+        int slot = slotsByCategoryId.get(categoryId, -1);
+        if (slot < 0) {
+            slot = slotCount++;
+            if (slot == categoryIdBySlot.length) {
+                categoryIdBySlot = Arrays.copyOf(categoryIdBySlot, slot * 2);
+                categoryNameBySlot = Arrays.copyOf(categoryNameBySlot, slot * 2);
+                categoryBitmaps = Arrays.copyOf(categoryBitmaps, slot * 2);
+            }
+            categoryIdBySlot[slot] = categoryId;
+            categoryBitmaps[slot] = new BitSet();
+            slotsByCategoryId.put(categoryId, slot);
+        }
+        if (categoryName != null) {
+            categoryNameBySlot[slot] = categoryName;
+        }
+        return slot;
+    }
+
+    @FunctionalInterface
+    private interface OrdinalComparator {
+        int compare(int a, int b);
+    }
+
+    /* collects the ids between offset and offset + limit while counting every match */
+    private static final class Page {
+
+        private final long offset;
+        private final long[] ids;
+        private int size;
+        private int total;
+
+        Page(long offset, int limit) {
+            this.offset = offset;
+            this.ids = new long[Math.max(0, limit)];
+        }
+
+        void offer(long id) {
+            if (total >= offset && size < ids.length) {
+                ids[size++] = id;
+            }
+            total++;
+        }
+
+        QueryResult result() {
+            return new QueryResult(size == ids.length ? ids : Arrays.copyOf(ids, size), total);
+        }
+    }
+
+    /**
+     * One page of product ids plus the number of products matching the filters.
+     */
+    public static final class QueryResult {
+
+        private final long[] ids;
+        private final int total;
+
+        QueryResult(long[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public long[] ids() {
+            return ids;
+        }
+
+        public int total() {
+            return total;
+        }
+    }
+
+    /**
+     * Snapshot columns of a handful of products, see {@link #rows}.
+     */
+    public static final class Rows {
+
+        private final long[] ids;
+        private final String[] names;
+        private final long[] priceCents;
+        private final Long[] categoryIds;
+
+        Rows(long[] ids, String[] names, long[] priceCents, Long[] categoryIds) {
+            this.ids = ids;
+            this.names = names;
+            this.priceCents = priceCents;
+            this.categoryIds = categoryIds;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public long id(int i) {
+            return ids[i];
+        }
+
+        public String name(int i) {
+            return names[i];
+        }
+
+        public long priceCents(int i) {
+            return priceCents[i];
+        }
+
+        /** Category id of a row; null for uncategorized products. */
+        public Long categoryId(int i) {
+            return categoryIds[i];
+        }
+    }
+
+    /**
+     * Raw facet counts indexed by category slot (slot 0 = uncategorized) and by price bucket.
+     */
+    public static final class FacetCounts {
+
+        private final long[] categoryIds;
+        private final String[] categoryNames;
+        private final int[] categoryCounts;
+        private final int[] bucketCounts;
+
+        FacetCounts(long[] categoryIds, String[] categoryNames, int[] categoryCounts, int[] bucketCounts) {
+            this.categoryIds = categoryIds;
+            this.categoryNames = categoryNames;
+            this.categoryCounts = categoryCounts;
+            this.bucketCounts = bucketCounts;
+        }
+
+        public int categorySlots() {
+            return categoryCounts.length;
+        }
+
+        /** Category id of a slot; null for the uncategorized slot. */
+        public Long categoryId(int slot) {
+            return slot == NO_CATEGORY ? null : categoryIds[slot];
+        }
+
+        public String categoryName(int slot) {
+            return categoryNames[slot];
+        }
+
+        public int categoryCount(int slot) {
+            return categoryCounts[slot];
+        }
+
+        public int[] bucketCounts() {
+            return bucketCounts;
+        }
+    }
+}
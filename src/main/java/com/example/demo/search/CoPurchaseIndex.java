@@ -0,0 +1,389 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.OrderItemRepository;
+
+/**
+ * In-memory "frequently bought together" model.
+ *
+ * Main concept:
+ * - Every product owns a fixed-size row of (neighbor id, count) pairs stored in flat primitive
+ *   arrays; a row is located through a {@link LongIntHashMap} from product id to row number.
+ * - Each order counts once for every pair of distinct products it contains.
+ * - A row keeps at most `capacity` neighbors using the space-saving scheme: when a new neighbor
+ *   arrives and the row is full, it replaces the weakest neighbor and inherits its count. Heavy
+ *   co-purchases are never evicted, and memory per product is bounded.
+ *
+ * Responsibilities:
+ * - Seed the model once from all order lines, streamed in order-id order through a cursor.
+ *   Orders and deletions arriving meanwhile are applied to the live table and recorded; once
+ *   the seeded table is swapped in, deletions are replayed and orders are replayed only if their
+ *   id is above the highest one the cursor saw, so no order is counted twice. (An order that
+ *   commits out of id order around the cursor's snapshot may be missed; the counts are
+ *   approximate anyway.)
+ * - Follow {@link OrderPlacedEvent} (published by checkout) and drop deleted products.
+ * - Return the strongest neighbors of a product ({@link #related}) without touching the database.
+ */
+@Slf4j
+@Component
+public class CoPurchaseIndex {
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int capacity;
+    private final int maxOrderLines;
+    private final int maxResults;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private Table table;
+    // changes made while the seed pass runs, replayed once it is swapped in (guarded by lock)
+    private List<PendingOrder> pendingOrders;
+    private List<Long> pendingDeletions;
+
+    private volatile boolean ready;
+
+    public CoPurchaseIndex(OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager,
+            @Value("${catalog.related.tracked-neighbors:32}") int capacity,
+            @Value("${catalog.related.max-order-lines:50}") int maxOrderLines,
+            @Value("${catalog.related.max-results:10}") int maxResults) {
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.capacity = capacity;
+        this.maxOrderLines = maxOrderLines;
+        this.maxResults = maxResults;
+        this.table = new Table(capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingOrders = new ArrayList<>();
+            pendingDeletions = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Table seeded = new Table(capacity);
+        SeedPass pass;
+        try {
+            pass = readOnlyTransaction.execute(status -> seed(seeded));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingOrders = null;
+                pendingDeletions = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed = 0;
+        lock.writeLock().lock();
+        try {
+            for (PendingOrder pending : pendingOrders) {
+                // the cursor already counted everything up to its last order id
+                if (pending.orderId > pass.lastOrderId) {
+                    seeded.addOrder(pending.lines, pending.lines.length);
+                    replayed++;
+                }
+            }
+            for (Long productId : pendingDeletions) {
+                seeded.removeRow(productId);
+            }
+            pendingOrders = null;
+            pendingDeletions = null;
+            table = seeded;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Co-purchase index built: {} orders (+{} replayed), {} products in {}ms",
+                pass.orders, replayed, seeded.rowCount(), System.currentTimeMillis() - start);
+    }
+
+    /* stream all order lines into the table; caller provides the transaction */
+    private SeedPass seed(Table seeded) {
+        SeedPass pass = new SeedPass();
+        long[] lines = new long[maxOrderLines];
+        int lineCount = 0;
+        try (Stream<OrderItemRepository.OrderLineView> rows = orderItemRepository.streamOrderLines()) {
+            for (Iterator<OrderItemRepository.OrderLineView> it = rows.iterator(); it.hasNext(); ) {
+                OrderItemRepository.OrderLineView row = it.next();
+                if (row.getOrderId() != pass.lastOrderId) {
+                    seeded.addOrder(lines, lineCount);
+                    pass.lastOrderId = row.getOrderId();
+                    lineCount = 0;
+                    pass.orders++;
+                }
+                if (lineCount < lines.length) {
+                    lineCount = appendDistinct(lines, lineCount, row.getProductId());
+                }
+            }
+        }
+        seeded.addOrder(lines, lineCount);
+        return pass;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long[] lines = new long[Math.min(event.getQuantitiesByProductId().size(), maxOrderLines)];
+        int lineCount = 0;
+        for (Long productId : event.getQuantitiesByProductId().keySet()) {
+            if (lineCount == lines.length) {
+                break;
+            }
+            lineCount = appendDistinct(lines, lineCount, productId);
+        }
+        lock.writeLock().lock();
+        try {
+            if (pendingOrders != null) {
+                pendingOrders.add(new PendingOrder(event.getOrderId(), Arrays.copyOf(lines, lineCount)));
+            }
+            table.addOrder(lines, lineCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDeletions != null) {
+                pendingDeletions.addAll(event.getProductIds());
+            }
+            for (Long productId : event.getProductIds()) {
+                table.removeRow(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Whether the seed pass has completed. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Up to `limit` neighbors of a product, strongest first (ties by lower id).
+     * Neighbors may include products deleted since; callers resolve ids against the catalog.
+     */
+    public Neighbors related(long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            return table.top(productId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* add a product id to the order lines unless already present; returns the new line count */
+    private static int appendDistinct(long[] lines, int lineCount, Long productId) {
+        if (productId == null) {
+            return lineCount;
+        }
+        for (int i = 0; i < lineCount; i++) {
+            if (lines[i] == productId) {
+                return lineCount;
+            }
+        }
+        lines[lineCount] = productId;
+        return lineCount + 1;
+    }
+
+    private static final class SeedPass {
+
+        private long orders;
+        // highest order id the cursor saw; Long.MIN_VALUE when there were no orders
+        private long lastOrderId = Long.MIN_VALUE;
+    }
+
+    private static final class PendingOrder {
+
+        private final long orderId;
+        private final long[] lines;
+
+        PendingOrder(long orderId, long[] lines) {
+            this.orderId = orderId;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Neighbor ids and their (over-)estimated co-purchase counts, strongest first.
+     */
+    public static final class Neighbors {
+
+        private final long[] ids;
+        private final long[] counts;
+
+        Neighbors(long[] ids, long[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        public long[] ids() {
+            return ids;
+        }
+
+        public long[] counts() {
+            return counts;
+        }
+    }
+
+    /**
+     * Fixed-width neighbor rows: row r occupies [r * capacity, r * capacity + sizes[r]).
+     * Not thread-safe; the index guards it with its lock.
+     */
+    private static final class Table {
+
+        private final int capacity;
+        private final LongIntHashMap rowsByProductId = new LongIntHashMap();
+        private long[] neighborIds;
+        private long[] counts;
+        private int[] sizes;
+        private int nextRow;
+        private int[] freeRows = new int[16];
+        private int freeCount;
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            this.neighborIds = new long[64 * capacity];
+            this.counts = new long[64 * capacity];
+            this.sizes = new int[64];
+        }
+
+        int rowCount() {
+            return rowsByProductId.size();
+        }
+
+        void addOrder(long[] lines, int lineCount) {
+            for (int i = 0; i < lineCount; i++) {
+                int row = rowFor(lines[i]);
+                for (int j = 0; j < lineCount; j++) {
+                    if (i != j) {
+                        increment(row, lines[j]);
+                    }
+                }
+            }
+        }
+
+        void removeRow(long productId) {
+            int row = rowsByProductId.remove(productId, -1);
+            if (row < 0) {
+                return;
+            }
+            sizes[row] = 0;
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            }
+            freeRows[freeCount++] = row;
+        }
+
+        Neighbors top(long productId, int limit) {
+            int row = rowsByProductId.get(productId, -1);
+            if (row < 0 || limit <= 0) {
+                return new Neighbors(new long[0], new long[0]);
+            }
+            int base = row * capacity;
+            int size = sizes[row];
+            long[] ids = Arrays.copyOfRange(neighborIds, base, base + size);
+            long[] weights = Arrays.copyOfRange(counts, base, base + size);
+            int n = Math.min(limit, size);
+            // partial selection sort: rows are small (capacity) and only the head is needed
+            for (int i = 0; i < n; i++) {
+                int best = i;
+                for (int j = i + 1; j < size; j++) {
+                    if (weights[j] > weights[best] || (weights[j] == weights[best] && ids[j] < ids[best])) {
+                        best = j;
+                    }
+                }
+                long id = ids[i];
+                long weight = weights[i];
+                ids[i] = ids[best];
+                weights[i] = weights[best];
+                ids[best] = id;
+                weights[best] = weight;
+            }
+            return new Neighbors(Arrays.copyOf(ids, n), Arrays.copyOf(weights, n));
+        }
+
+        private int rowFor(long productId) {
+            int row = rowsByProductId.get(productId, -1);
+            if (row >= 0) {
+                return row;
+            }
+            if (freeCount > 0) {
+                row = freeRows[--freeCount];
+            } else {
+                row = nextRow++;
+                if (row == sizes.length) {
+                    int rows = sizes.length * 2;
+                    sizes = Arrays.copyOf(sizes, rows);
+                    neighborIds = Arrays.copyOf(neighborIds, rows * capacity);
+                    counts = Arrays.copyOf(counts, rows * capacity);
+                }
+            }
+            sizes[row] = 0;
+            rowsByProductId.put(productId, row);
+            return row;
+        }
+
+        /* space-saving update of one row */
+        private void increment(int row, long neighborId) {
+            int base = row * capacity;
+            int size = sizes[row];
+            int weakest = -1;
+            for (int i = base; i < base + size; i++) {
+                if (neighborIds[i] == neighborId) {
+                    counts[i]++;
+                    return;
+                }
+                if (weakest < 0 || counts[i] < counts[weakest]) {
+                    weakest = i;
+                }
+            }
+            if (size < capacity) {
+                neighborIds[base + size] = neighborId;
+                counts[base + size] = 1;
+                sizes[row] = size + 1;
+                return;
+            }
+            // row is full: the newcomer takes over the weakest slot and its count
+            neighborIds[weakest] = neighborId;
+            counts[weakest]++;
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.entity.Product;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * Typo-tolerant matching of product names ("bakpack" finds "Backpack").
+ *
+ * Main concept:
+ * - The distinct words of all product names form a dictionary; each word is indexed under its
+ *   trigrams (padded with `$`, so "bag" gives "$ba", "bag", "ag$"). Dictionary words hold a
+ *   sorted postings list of product ordinals.
+ * - A query token generates candidate words from shared trigrams: one edit destroys at most three
+ *   trigrams, so a word within distance d shares at least (trigrams - 3d) of them. Survivors of
+ *   this filter and a length check are verified with a bounded Levenshtein distance.
+ * - Allowed distance grows with token length: exact up to 3 characters, 1 up to 6, then 2.
+ * - Work is proportional to the dictionary neighbourhood of the query, not to the catalog size.
+ *
+ * Responsibilities:
+ * - Build from the database once the application is ready; follow product create/update/delete
+ *   (rebuilds replay the changes that arrive while they read, see {@link ReplayingRebuild}).
+ * - Return product ids where every query token matches some name word, closest matches first
+ *   ({@link #search}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFuzzyIndex {
+
+    /** Maximum number of dictionary words a single query token may expand to. */
+    private static final int MAX_TERMS_PER_TOKEN = 64;
+
+    private static final char PAD = '$';
+
+    private static final long[] NO_HITS = new long[0];
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // dictionary: word -> term id; words are never removed, a word without products is skipped
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private String[] terms = new String[1024];
+    private SortedInts[] termDocs = new SortedInts[1024];
+    private int termCount;
+
+    // trigram (three chars packed into a long) -> slot in trigramTerms
+    private final LongIntHashMap trigramSlots = new LongIntHashMap();
+    private SortedInts[] trigramTerms = new SortedInts[1024];
+    private int trigramCount;
+
+    // products, indexed by ordinal
+    private final LongIntHashMap ordinals = new LongIntHashMap();
+    private long[] docIds = new long[1024];
+    private int[][] docTerms = new int[1024][];
+    private int[] freeOrdinals = new int[64];
+    private int freeCount;
+    private int nextOrdinal;
+
+    private final ReplayingRebuild rebuilds = new ReplayingRebuild(lock);
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductRepository.ProductSnapshotView> rows = rebuilds.rebuild(productRepository::findAllSnapshotViews, read -> {
+            termIds.clear();
+            Arrays.fill(terms, null);
+            Arrays.fill(termDocs, null);
+            termCount = 0;
+            trigramSlots.clear();
+            Arrays.fill(trigramTerms, null);
+            trigramCount = 0;
+            ordinals.clear();
+            Arrays.fill(docTerms, null);
+            freeCount = 0;
+            nextOrdinal = 0;
+            for (ProductRepository.ProductSnapshotView row : read) {
+                indexDocument(row.getId(), row.getName());
+            }
+            ready = true;
+        });
+        log.info("Product fuzzy index built: {} products, {} words, {} trigrams in {}ms",
+                rows.size(), termCount, trigramCount, System.currentTimeMillis() - start);
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getProduct();
+        rebuilds.apply(() -> {
+            removeDocument(product.getId());
+            indexDocument(product.getId(), product.getName());
+        });
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        rebuilds.apply(() -> removeDocuments(productIds));
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        rebuild();
+    }
+
+    /** Whether the initial build has completed and the index can answer queries. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Return the ids of all products whose name approximately contains every query token,
+     * ordered by total edit distance (ties by insertion order, i.e. roughly by id).
+     */
+    public long[] search(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(TextTokenizer.tokenize(query)));
+        if (tokens.isEmpty()) {
+            return NO_HITS;
+        }
+        lock.readLock().lock();
+        try {
+            long[] candidates = null;
+            for (String token : tokens) {
+                long[] hits = collect(token);
+                candidates = candidates == null ? hits : intersect(candidates, hits);
+                if (candidates.length == 0) {
+                    return NO_HITS;
+                }
+            }
+            return rank(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Edit distance tolerated for a query token of the given length. */
+    static int maxDistance(int length) {
+        return length <= 3 ? 0 : length <= 6 ? 1 : 2;
+    }
+
+    // ============================================
+    // QUERY EVALUATION (caller holds the read lock)
+    // ============================================
+
+    /*
+     * Products containing a dictionary word within the allowed distance of the token, as packed
+     * (ordinal << 32 | distance) longs sorted by ordinal, keeping the smallest distance per product.
+     */
+    private long[] collect(String token) {
+        int maxDistance = maxDistance(token.length());
+        long[] grams = trigrams(token);
+        int minShared = Math.max(1, grams.length - 3 * maxDistance);
+
+        // size the counting table to the postings the token touches, not to the dictionary
+        int[] gramSlots = new int[grams.length];
+        int postings = 0;
+        for (int g = 0; g < grams.length; g++) {
+            gramSlots[g] = trigramSlots.get(grams[g], -1);
+            if (gramSlots[g] >= 0) {
+                postings += trigramTerms[gramSlots[g]].size;
+            }
+        }
+        if (postings == 0) {
+            return NO_HITS;
+        }
+
+        // count shared trigrams per dictionary word: open addressing on term + 1 (0 = empty)
+        int capacity = Integer.highestOneBit(postings * 2 - 1) << 1;
+        int mask = capacity - 1;
+        int[] sharedTerms = new int[capacity];
+        int[] sharedCounts = new int[capacity];
+        for (int slot : gramSlots) {
+            if (slot < 0) {
+                continue;
+            }
+            SortedInts words = trigramTerms[slot];
+            for (int i = 0; i < words.size; i++) {
+                int key = words.values[i] + 1;
+                int h = key * 0x9E3779B9;
+                int j = (h ^ (h >>> 16)) & mask;
+                while (sharedTerms[j] != 0 && sharedTerms[j] != key) {
+                    j = (j + 1) & mask;
+                }
+                sharedTerms[j] = key;
+                sharedCounts[j]++;
+            }
+        }
+
+        // verify survivors, packed as (distance << 32 | term) so sorting puts the closest first
+        long[] matches = new long[Math.min(postings, 256)];
+        int matchCount = 0;
+        int[] previousRow = new int[token.length() + 1];
+        int[] currentRow = new int[token.length() + 1];
+        for (int j = 0; j < capacity; j++) {
+            if (sharedTerms[j] == 0 || sharedCounts[j] < minShared) {
+                continue;
+            }
+            int term = sharedTerms[j] - 1;
+            String word = terms[term];
+            if (termDocs[term].size == 0 || Math.abs(word.length() - token.length()) > maxDistance) {
+                continue;
+            }
+            int distance = boundedDistance(token, word, maxDistance, previousRow, currentRow);
+            if (distance <= maxDistance) {
+                if (matchCount == matches.length) {
+                    matches = Arrays.copyOf(matches, matchCount * 2);
+                }
+                matches[matchCount++] = ((long) distance << 32) | term;
+            }
+        }
+        if (matchCount == 0) {
+            return NO_HITS;
+        }
+        Arrays.sort(matches, 0, matchCount);
+        matchCount = Math.min(matchCount, MAX_TERMS_PER_TOKEN);
+
+        int total = 0;
+        for (int i = 0; i < matchCount; i++) {
+            total += termDocs[(int) matches[i]].size;
+        }
+        long[] packed = new long[total];
+        int n = 0;
+        for (int i = 0; i < matchCount; i++) {
+            int distance = (int) (matches[i] >>> 32);
+            SortedInts docs = termDocs[(int) matches[i]];
+            for (int j = 0; j < docs.size; j++) {
+                packed[n++] = ((long) docs.values[j] << 32) | distance;
+            }
+        }
+        Arrays.sort(packed);
+
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            // sorted ascending, so the first entry of an ordinal has its smallest distance
+            if (out == 0 || (packed[out - 1] >>> 32) != (packed[i] >>> 32)) {
+                packed[out++] = packed[i];
+            }
+        }
+        return out == n ? packed : Arrays.copyOf(packed, out);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            long oa = a[i] >>> 32;
+            long ob = b[j] >>> 32;
+            if (oa < ob) {
+                i++;
+            } else if (oa > ob) {
+                j++;
+            } else {
+                result[n++] = (oa << 32) | ((a[i] & 0xFFFFFFFFL) + (b[j] & 0xFFFFFFFFL));
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /* Order candidates by ascending total distance (ties by ordinal) and translate to product ids. */
+    private long[] rank(long[] candidates) {
+        long[] order = new long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            order[i] = ((candidates[i] & 0xFFFFFFFFL) << 32) | (candidates[i] >>> 32);
+        }
+        Arrays.sort(order);
+        long[] ids = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ids[i] = docIds[(int) order[i]];
+        }
+        return ids;
+    }
+
+    /*
+     * Levenshtein distance between `token` and `word`, or maxDistance + 1 as soon as every cell of
+     * a row exceeds maxDistance. The rows are scratch arrays of length token.length() + 1.
+     */
+    static int boundedDistance(String token, String word, int maxDistance, int[] previousRow, int[] currentRow) {
+        int columns = token.length();
+        for (int j = 0; j <= columns; j++) {
+            previousRow[j] = j;
+        }
+        for (int i = 1; i <= word.length(); i++) {
+            currentRow[0] = i;
+            int rowMin = i;
+            char c = word.charAt(i - 1);
+            for (int j = 1; j <= columns; j++) {
+                int cost = token.charAt(j - 1) == c ? 0 : 1;
+                int value = Math.min(Math.min(currentRow[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+                currentRow[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        return previousRow[columns];
+    }
+
+    /* distinct padded trigrams of a word, three chars packed into a long (never 0) */
+    private static long[] trigrams(String word) {
+        int length = word.length() + 2;
+        long[] grams = new long[length - 2];
+        int n = 0;
+        for (int i = 0; i + 3 <= length; i++) {
+            long gram = ((long) padded(word, i) << 32) | ((long) padded(word, i + 1) << 16) | padded(word, i + 2);
+            boolean seen = false;
+            for (int k = 0; k < n && !seen; k++) {
+                seen = grams[k] == gram;
+            }
+            if (!seen) {
+                grams[n++] = gram;
+            }
+        }
+        return n == grams.length ? grams : Arrays.copyOf(grams, n);
+    }
+
+    private static char padded(String word, int i) {
+        return i == 0 || i == word.length() + 1 ? PAD : word.charAt(i - 1);
+    }
+
+    // ============================================
+    // INDEX MAINTENANCE (caller holds the write lock)
+    // ============================================
+
+    private void indexDocument(Long id, String name) {
+        if (id == null) {
+            return;
+        }
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TextTokenizer.tokenize(name)));
+        if (words.isEmpty()) {
+            return;
+        }
+        int ordinal = allocateOrdinal(id);
+        int[] ids = new int[words.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = termId(words.get(i));
+            termDocs[ids[i]].add(ordinal);
+        }
+        docTerms[ordinal] = ids;
+    }
+
+    private void removeDocument(Long id) {
+        int ordinal = ordinals.remove(id, -1);
+        if (ordinal < 0) {
+            return;
+        }
+        for (int term : docTerms[ordinal]) {
+            termDocs[term].remove(ordinal);
+        }
+        releaseOrdinal(ordinal);
+    }
+
+    /* like removeDocument for many ids, but each affected posting list is compacted only once */
+    private void removeDocuments(List<Long> ids) {
+        BitSet removed = new BitSet();
+        BitSet affectedTerms = new BitSet();
+        for (Long id : ids) {
+            int ordinal = ordinals.remove(id, -1);
+            if (ordinal < 0) {
+                continue;
+            }
+            for (int term : docTerms[ordinal]) {
+                affectedTerms.set(term);
+            }
+            removed.set(ordinal);
+        }
+        for (int term = affectedTerms.nextSetBit(0); term >= 0; term = affectedTerms.nextSetBit(term + 1)) {
+            termDocs[term].removeAll(removed);
+        }
+        for (int ordinal = removed.nextSetBit(0); ordinal >= 0; ordinal = removed.nextSetBit(ordinal + 1)) {
+            releaseOrdinal(ordinal);
+        }
+    }
+
+    private void releaseOrdinal(int ordinal) {
+        docTerms[ordinal] = null;
+        docIds[ordinal] = 0L;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    private int allocateOrdinal(Long id) {
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = freeOrdinals[--freeCount];
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == docIds.length) {
+                docIds = Arrays.copyOf(docIds, ordinal * 2);
+                docTerms = Arrays.copyOf(docTerms, ordinal * 2);
+            }
+        }
+        docIds[ordinal] = id;
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    /* dictionary id of a word, registering it (and its trigrams) on first sight */
+    private int termId(String word) {
+        Integer existing = termIds.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int term = termCount++;
+        if (term == terms.length) {
+            terms = Arrays.copyOf(terms, term * 2);
+            termDocs = Arrays.copyOf(termDocs, term * 2);
+        }
+        terms[term] = word;
+        termDocs[term] = new SortedInts();
+        termIds.put(word, term);
+        for (long gram : trigrams(word)) {
+            int slot = trigramSlots.get(gram, -1);
+            if (slot < 0) {
+                slot = trigramCount++;
+                if (slot == trigramTerms.length) {
+                    trigramTerms = Arrays.copyOf(trigramTerms, slot * 2);
+                }
+                trigramTerms[slot] = new SortedInts();
+                trigramSlots.put(gram, slot);
+            }
+            // term ids only grow, so this is an append
+            trigramTerms[slot].add(term);
+        }
+        return term;
+    }
+
+    /**
+     * Growable sorted set of ints.
+     */
+    private static final class SortedInts {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+        }
+
+        void remove(int value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            size--;
+        }
+
+        void removeAll(BitSet removed) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.get(values[i])) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.dto.product.SuggestionResponse;
+import com.example.demo.entity.Category;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.OrderPlacedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.CategoryRepository;
+import com.example.demo.repository.OrderItemRepository;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * Typeahead index over product and category names, weighted by units sold.
+ *
+ * Main concept:
+ * - A character trie flattened into primitive arrays. Every name is inserted once per word
+ *   start ("running shoes" also under "shoes"), normalized to lowercase alphanumerics.
+ * - Each trie node stores its best {@link #maxResults} completions, precomputed at build time,
+ *   so a lookup is a walk down the prefix plus a copy; no subtree scan happens per request.
+ * - The trie is immutable and swapped atomically, so lookups take no locks. Catalog and order
+ *   events only mark it dirty; a scheduled refresh rebuilds it off the request path.
+ *
+ * Responsibilities:
+ * - Build from the database once the application is ready.
+ * - Keep per-product sales totals current from {@link OrderPlacedEvent}.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+
+    /** Indexed keys are cut to this many characters; longer prefixes are matched on their head. */
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private static final byte PRODUCT = 0;
+    private static final byte CATEGORY = 1;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final int maxResults;
+
+    private final Map<Long, Long> unitsSoldByProductId = new ConcurrentHashMap<>();
+    private List<ProductRepository.ProductSnapshotView> productRows = List.of();
+    private List<Category> categoryRows = List.of();
+
+    private volatile Trie trie;
+    private volatile boolean catalogDirty;
+    private volatile boolean weightsDirty;
+
+    public ProductSuggestIndex(ProductRepository productRepository, CategoryRepository categoryRepository,
+            OrderItemRepository orderItemRepository,
+            @Value("${catalog.suggest.max-results:10}") int maxResults) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.maxResults = maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        unitsSoldByProductId.clear();
+        for (OrderItemRepository.ProductSalesView row : orderItemRepository.findSalesPerProduct()) {
+            unitsSoldByProductId.put(row.getProductId(), row.getTotalSold());
+        }
+        catalogDirty = true;
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.suggest.refresh-ms:5000}")
+    public void refreshIfDirty() {
+        if (trie != null && (catalogDirty || weightsDirty)) {
+            refresh();
+        }
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogDirty = true;
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        catalogDirty = true;
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        catalogDirty = true;
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryDeleted(CategoryDeletedEvent event) {
+        catalogDirty = true;
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        catalogDirty = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        event.getQuantitiesByProductId().forEach((productId, quantity) ->
+                unitsSoldByProductId.merge(productId, quantity.longValue(), Long::sum));
+        weightsDirty = true;
+    }
+
+    /** Whether the first build has completed. */
+    public boolean isReady() {
+        return trie != null;
+    }
+
+    /**
+     * Return up to `limit` completions for `prefix`, best-selling first.
+     * Matches the start of any word of a product or category name, case-insensitively.
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        Trie current = trie;
+        String key = normalize(prefix);
+        if (current == null || key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = current.child(node, key.charAt(i));
+        }
+        if (node < 0) {
+            return List.of();
+        }
+        int start = current.topStart[node];
+        int count = Math.min(limit, current.topLength[node]);
+        List<SuggestionResponse> suggestions = new ArrayList<>(count);
+        for (int i = start; i < start + count; i++) {
+            int entry = current.topEntries[i];
+            suggestions.add(SuggestionResponse.builder()
+                    .type(current.types[entry] == PRODUCT ? "PRODUCT" : "CATEGORY")
+                    .id(current.ids[entry])
+                    .text(current.texts[entry])
+                    .weight(current.weights[entry])
+                    .build());
+        }
+        return suggestions;
+    }
+
+    /** Maximum number of completions a single lookup can return. */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /* reload names if the catalog changed, then rebuild and publish a new trie */
+    private synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        if (catalogDirty) {
+            catalogDirty = false;
+            productRows = productRepository.findAllSnapshotViews();
+            categoryRows = categoryRepository.findAll();
+        }
+        weightsDirty = false;
+
+        Map<Long, Long> unitsSoldByCategoryId = new HashMap<>();
+        List<Candidate> candidates = new ArrayList<>(productRows.size() + categoryRows.size());
+        for (ProductRepository.ProductSnapshotView row : productRows) {
+            long sold = unitsSoldByProductId.getOrDefault(row.getId(), 0L);
+            candidates.add(new Candidate(PRODUCT, row.getId(), row.getName(), sold));
+            if (row.getCategoryId() != null) {
+                unitsSoldByCategoryId.merge(row.getCategoryId(), sold, Long::sum);
+            }
+        }
+        for (Category category : categoryRows) {
+            candidates.add(new Candidate(CATEGORY, category.getId(), category.getName(),
+                    unitsSoldByCategoryId.getOrDefault(category.getId(), 0L)));
+        }
+
+        Trie built = new TrieBuilder(candidates, maxResults).build();
+        trie = built;
+        log.info("Suggest index built: {} names, {} trie nodes in {}ms",
+                candidates.size(), built.childStart.length, System.currentTimeMillis() - start);
+    }
+
+    /* lowercase, collapse every run of non-alphanumerics to one space, trim */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Candidate {
+        private final byte type;
+        private final long id;
+        private final String text;
+        private final long weight;
+
+        Candidate(byte type, long id, String text, long weight) {
+            this.type = type;
+            this.id = id;
+            this.text = text != null ? text : "";
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Immutable flattened trie. Node 0 is the root; the children of a node are stored contiguously
+     * in `childLabels` / `childNodes`, sorted by label.
+     */
+    private static final class Trie {
+        private final int[] childStart;
+        private final int[] childCount;
+        private final char[] childLabels;
+        private final int[] childNodes;
+        private final int[] topStart;
+        private final int[] topLength;
+        private final int[] topEntries;
+        private final byte[] types;
+        private final long[] ids;
+        private final String[] texts;
+        private final long[] weights;
+
+        Trie(int[] childStart, int[] childCount, char[] childLabels, int[] childNodes,
+                int[] topStart, int[] topLength, int[] topEntries,
+                byte[] types, long[] ids, String[] texts, long[] weights) {
+            this.childStart = childStart;
+            this.childCount = childCount;
+            this.childLabels = childLabels;
+            this.childNodes = childNodes;
+            this.topStart = topStart;
+            this.topLength = topLength;
+            this.topEntries = topEntries;
+            this.types = types;
+            this.ids = ids;
+            this.texts = texts;
+            this.weights = weights;
+        }
+
+        /* child of `node` labelled `c`, or -1 */
+        int child(int node, char c) {
+            int lo = childStart[node];
+            int hi = lo + childCount[node] - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char label = childLabels[mid];
+                if (label < c) {
+                    lo = mid + 1;
+                } else if (label > c) {
+                    hi = mid - 1;
+                } else {
+                    return childNodes[mid];
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Builds a {@link Trie} from sorted keys: the keys below a node form a contiguous range,
+     * so each node is built from a sub-range grouped by the character at the node's depth.
+     */
+    private static final class TrieBuilder {
+
+        private final int topK;
+        private final byte[] types;
+        private final long[] ids;
+        private final String[] texts;
+        private final long[] weights;
+        private final String[] keys;
+        private final int[] keyEntries;
+        private final Comparator<Integer> rank;
+
+        private int[] childStart = new int[1024];
+        private int[] childCount = new int[1024];
+        private int[] topStart = new int[1024];
+        private int[] topLength = new int[1024];
+        private int nodeCount;
+        private char[] childLabels = new char[1024];
+        private int[] childNodes = new int[1024];
+        private int childSize;
+        private int[] topEntries = new int[1024];
+        private int topSize;
+
+        TrieBuilder(List<Candidate> candidates, int topK) {
+            this.topK = topK;
+            int n = candidates.size();
+            types = new byte[n];
+            ids = new long[n];
+            texts = new String[n];
+            weights = new long[n];
+            List<String> keyList = new ArrayList<>();
+            List<Integer> entryList = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Candidate candidate = candidates.get(i);
+                types[i] = candidate.type;
+                ids[i] = candidate.id;
+                texts[i] = candidate.text;
+                weights[i] = candidate.weight;
+                String normalized = normalize(candidate.text);
+                for (int start = 0; start < normalized.length(); start++) {
+                    if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                        keyList.add(normalized.substring(start, Math.min(normalized.length(), start + MAX_KEY_LENGTH)));
+                        entryList.add(i);
+                    }
+                }
+            }
+            Integer[] order = new Integer[keyList.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keyList::get));
+            keys = new String[order.length];
+            keyEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = keyList.get(order[i]);
+                keyEntries[i] = entryList.get(order[i]);
+            }
+            // best-selling first, then shorter names, then alphabetical
+            rank = Comparator.<Integer>comparingLong(e -> -weights[e])
+                    .thenComparingInt(e -> texts[e].length())
+                    .thenComparing(e -> texts[e]);
+        }
+
+        Trie build() {
+            buildNode(0, keys.length, 0);
+            return new Trie(
+                    Arrays.copyOf(childStart, nodeCount), Arrays.copyOf(childCount, nodeCount),
+                    Arrays.copyOf(childLabels, childSize), Arrays.copyOf(childNodes, childSize),
+                    Arrays.copyOf(topStart, nodeCount), Arrays.copyOf(topLength, nodeCount),
+                    Arrays.copyOf(topEntries, topSize),
+                    types, ids, texts, weights);
+        }
+
+        /* build the node for keys[lo, hi) sharing their first `depth` characters; returns its index */
+        private int buildNode(int lo, int hi, int depth) {
+            int node = nodeCount++;
+            if (node == childStart.length) {
+                int capacity = node * 2;
+                childStart = Arrays.copyOf(childStart, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                topStart = Arrays.copyOf(topStart, capacity);
+                topLength = Arrays.copyOf(topLength, capacity);
+            }
+
+            LinkedHashSet<Integer> distinct = new LinkedHashSet<>();
+            int i = lo;
+            while (i < hi && keys[i].length() == depth) {
+                distinct.add(keyEntries[i]);
+                i++;
+            }
+            boolean hasTerminals = i > lo;
+
+            List<Character> labels = new ArrayList<>();
+            List<Integer> children = new ArrayList<>();
+            while (i < hi) {
+                char c = keys[i].charAt(depth);
+                int j = i + 1;
+                while (j < hi && keys[j].charAt(depth) == c) {
+                    j++;
+                }
+                int child = buildNode(i, j, depth + 1);
+                labels.add(c);
+                children.add(child);
+                for (int t = topStart[child]; t < topStart[child] + topLength[child]; t++) {
+                    distinct.add(topEntries[t]);
+                }
+                i = j;
+            }
+
+            childStart[node] = childSize;
+            childCount[node] = children.size();
+            for (int c = 0; c < children.size(); c++) {
+                if (childSize == childLabels.length) {
+                    childLabels = Arrays.copyOf(childLabels, childSize * 2);
+                    childNodes = Arrays.copyOf(childNodes, childSize * 2);
+                }
+                childLabels[childSize] = labels.get(c);
+                childNodes[childSize] = children.get(c);
+                childSize++;
+            }
+
+            if (!hasTerminals && children.size() == 1) {
+                // single-path node: same completions as its only child, share the slice
+                topStart[node] = topStart[children.get(0)];
+                topLength[node] = topLength[children.get(0)];
+                return node;
+            }
+            List<Integer> candidates = new ArrayList<>(distinct);
+            candidates.sort(rank);
+            int count = Math.min(topK, candidates.size());
+            topStart[node] = topSize;
+            topLength[node] = count;
+            for (int c = 0; c < count; c++) {
+                if (topSize == topEntries.length) {
+                    topEntries = Arrays.copyOf(topEntries, topSize * 2);
+                }
+                topEntries[topSize++] = candidates.get(c);
+            }
+            return node;
+        }
+    }
+}
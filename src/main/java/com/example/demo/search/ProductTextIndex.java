@@ -0,0 +1,386 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.cache.CatalogVersion;
+import com.example.demo.entity.Product;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * In-process inverted index over product name and description.
+ *
+ * Main concept:
+ * - Every product gets a dense internal ordinal; each term maps to a postings list of ordinals
+ *   kept sorted in primitive int arrays, with a parallel array of per-document term weights.
+ * - Name occurrences weigh {@link #NAME_WEIGHT} times more than description occurrences.
+ *
+ * Responsibilities:
+ * - Build the index from the database once the application is ready (rebuilds replay the changes
+ *   that arrive while they read, see {@link ReplayingRebuild}).
+ * - Follow product create/update/delete through {@link ProductChangedEvent} / {@link ProductsDeletedEvent}.
+ * - Answer text queries with product ids ranked by a tf-idf style score. All query tokens must
+ *   match (AND); each token also matches dictionary terms it is a prefix of, at half weight.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductTextIndex {
+
+    /** Weight of a token occurrence in the product name relative to one in the description. */
+    private static final int NAME_WEIGHT = 4;
+
+    /** Maximum number of dictionary terms a single query token may expand to by prefix. */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /** Fixed-point scale applied to float scores so they can be packed into longs. */
+    private static final int SCORE_SCALE = 100;
+
+    private static final long[] NO_HITS = new long[0];
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] docIds = new long[1024];
+    private Postings[][] docPostings = new Postings[1024][];
+    private int[] freeOrdinals = new int[64];
+    private int freeCount;
+    private int nextOrdinal;
+    private final ReplayingRebuild rebuilds = new ReplayingRebuild(lock);
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductRepository.ProductTextView> rows = rebuilds.rebuild(productRepository::findAllTextViews, read -> {
+            terms.clear();
+            ordinals.clear();
+            Arrays.fill(docPostings, null);
+            freeCount = 0;
+            nextOrdinal = 0;
+            for (ProductRepository.ProductTextView row : read) {
+                indexDocument(row.getId(), row.getName(), row.getDescription());
+            }
+            ready = true;
+        });
+        log.info("Product text index built: {} products, {} terms in {}ms",
+                rows.size(), terms.size(), System.currentTimeMillis() - start);
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getProduct();
+        rebuilds.apply(() -> {
+            removeDocument(product.getId());
+            indexDocument(product.getId(), product.getName(), product.getDescription());
+        });
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        List<Long> productIds = event.getProductIds();
+        rebuilds.apply(() -> removeDocuments(productIds));
+    }
+
+    @Order(CatalogVersion.APPLY_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogImported(CatalogImportedEvent event) {
+        rebuild();
+    }
+
+    /** Whether the initial build has completed and the index can answer queries. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Return the ids of all products matching every token of the query, best match first.
+     */
+    public long[] search(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(TextTokenizer.tokenize(query)));
+        if (tokens.isEmpty()) {
+            return NO_HITS;
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = ordinals.size();
+            long[] candidates = null;
+            for (String token : tokens) {
+                long[] hits = collect(token, documentCount);
+                candidates = candidates == null ? hits : intersect(candidates, hits);
+                if (candidates.length == 0) {
+                    return NO_HITS;
+                }
+            }
+            return rank(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================================
+    // QUERY EVALUATION (caller holds the read lock)
+    // ============================================
+
+    /*
+     * Gather the postings of every term the token matches into packed (ordinal << 32 | score)
+     * longs sorted by ordinal, keeping the best score when a document matches several terms.
+     */
+    private long[] collect(String token, int documentCount) {
+        List<Postings> matched = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, Postings> entry : terms.tailMap(token, true).entrySet()) {
+            if (!entry.getKey().startsWith(token) || matched.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            matched.add(entry.getValue());
+            total += entry.getValue().size;
+        }
+        if (total == 0) {
+            return NO_HITS;
+        }
+
+        long[] packed = new long[total];
+        int n = 0;
+        for (Postings postings : matched) {
+            double idf = Math.log(1.0 + (double) documentCount / postings.size);
+            double factor = postings.term.equals(token) ? SCORE_SCALE : SCORE_SCALE / 2.0;
+            for (int i = 0; i < postings.size; i++) {
+                int score = (int) Math.round(postings.weights[i] * idf * factor);
+                packed[n++] = pack(postings.docs[i], score);
+            }
+        }
+        Arrays.sort(packed);
+
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            if (out > 0 && ordinal(packed[out - 1]) == ordinal(packed[i])) {
+                // same document through another term: sorted ascending, so this score is higher
+                packed[out - 1] = packed[i];
+            } else {
+                packed[out++] = packed[i];
+            }
+        }
+        return out == n ? packed : Arrays.copyOf(packed, out);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            int oa = ordinal(a[i]);
+            int ob = ordinal(b[j]);
+            if (oa < ob) {
+                i++;
+            } else if (oa > ob) {
+                j++;
+            } else {
+                long score = (long) score(a[i]) + score(b[j]);
+                result[n++] = pack(oa, (int) Math.min(score, Integer.MAX_VALUE));
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /* Order candidates by descending score (ties by ordinal) and translate to product ids. */
+    private long[] rank(long[] candidates) {
+        long[] order = new long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            order[i] = pack(Integer.MAX_VALUE - score(candidates[i]), ordinal(candidates[i]));
+        }
+        Arrays.sort(order);
+        long[] ids = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            ids[i] = docIds[(int) order[i]];
+        }
+        return ids;
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static int ordinal(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int score(long packed) {
+        return (int) packed;
+    }
+
+    // ============================================
+    // INDEX MAINTENANCE (caller holds the write lock)
+    // ============================================
+
+    private void indexDocument(Long id, String name, String description) {
+        if (id == null) {
+            return;
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        for (String token : TextTokenizer.tokenize(name)) {
+            weights.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : TextTokenizer.tokenize(description)) {
+            weights.merge(token, 1, Integer::sum);
+        }
+        if (weights.isEmpty()) {
+            return;
+        }
+
+        int ordinal = allocateOrdinal(id);
+        Postings[] postingsOfDoc = new Postings[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Postings postings = terms.computeIfAbsent(entry.getKey(), Postings::new);
+            postings.add(ordinal, entry.getValue());
+            postingsOfDoc[i++] = postings;
+        }
+        docPostings[ordinal] = postingsOfDoc;
+    }
+
+    private void removeDocument(Long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (Postings postings : docPostings[ordinal]) {
+            postings.remove(ordinal);
+            if (postings.size == 0) {
+                terms.remove(postings.term);
+            }
+        }
+        releaseOrdinal(ordinal);
+    }
+
+    /* like removeDocument for many ids, but each affected posting list is compacted only once */
+    private void removeDocuments(List<Long> ids) {
+        BitSet removed = new BitSet();
+        Set<Postings> affected = new HashSet<>();
+        for (Long id : ids) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                continue;
+            }
+            affected.addAll(Arrays.asList(docPostings[ordinal]));
+            removed.set(ordinal);
+        }
+        for (Postings postings : affected) {
+            postings.removeAll(removed);
+            if (postings.size == 0) {
+                terms.remove(postings.term);
+            }
+        }
+        for (int ordinal = removed.nextSetBit(0); ordinal >= 0; ordinal = removed.nextSetBit(ordinal + 1)) {
+            releaseOrdinal(ordinal);
+        }
+    }
+
+    private void releaseOrdinal(int ordinal) {
+        docPostings[ordinal] = null;
+        docIds[ordinal] = 0L;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    private int allocateOrdinal(Long id) {
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = freeOrdinals[--freeCount];
+        } else {
+            ordinal = nextOrdinal++;
+            if (ordinal == docIds.length) {
+                docIds = Arrays.copyOf(docIds, ordinal * 2);
+                docPostings = Arrays.copyOf(docPostings, ordinal * 2);
+            }
+        }
+        docIds[ordinal] = id;
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Postings list of one term: ordinals sorted ascending with their weights.
+     */
+    private static final class Postings {
+
+        private final String term;
+        private int[] docs = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int ordinal, int weight) {
+            int i = Arrays.binarySearch(docs, 0, size, ordinal);
+            if (i >= 0) {
+                weights[i] = weight;
+                return;
+            }
+            i = -i - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            System.arraycopy(weights, i, weights, i + 1, size - i);
+            docs[i] = ordinal;
+            weights[i] = weight;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int i = Arrays.binarySearch(docs, 0, size, ordinal);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+        }
+
+        void removeAll(BitSet removed) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removed.get(docs[i])) {
+                    docs[kept] = docs[i];
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
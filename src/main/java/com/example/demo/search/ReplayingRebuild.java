@@ -0,0 +1,94 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full rebuilds of an in-memory structure that keeps following live changes meanwhile.
+ *
+ * Main concept:
+ * - A rebuild reads its rows without holding the structure's lock, so queries and changes go on
+ *   against the old state. Changes applied during that read are also recorded, and replayed on
+ *   top of the rebuilt state under the same write lock that installs it.
+ * - The rows may or may not include a change committed during the read; replaying it settles
+ *   both cases, so changes must be idempotent (upsert / remove by id).
+ * - Rebuilds are serialized, so only one records changes at a time.
+ *
+ * The owner keeps using `lock` for its own reads; writes go through {@link #apply}.
+ */
+@Slf4j
+final class ReplayingRebuild {
+
+    private final ReentrantReadWriteLock lock;
+    private final Object rebuildMonitor = new Object();
+
+    // changes applied while a rebuild reads its rows (guarded by lock)
+    private List<Runnable> pending;
+
+    ReplayingRebuild(ReentrantReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    /** Apply a change under the write lock and, while a rebuild reads its rows, keep it for replay. */
+    void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Read rows with `read` (no lock held), then `install` them and replay the changes that
+     * arrived meanwhile, both under the write lock.
+     *
+     * @return the rows read
+     */
+    <T> T rebuild(Supplier<T> read, Consumer<T> install) {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            T rows;
+            try {
+                rows = read.get();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                install.accept(rows);
+                for (Runnable change : pending) {
+                    change.run();
+                }
+                if (!pending.isEmpty()) {
+                    log.debug("Replayed {} changes made during a rebuild", pending.size());
+                }
+                return rows;
+            } finally {
+                pending = null;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
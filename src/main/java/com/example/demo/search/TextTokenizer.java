@@ -0,0 +1,45 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits free text into lower-cased search tokens.
+ *
+ * Main concept:
+ * - A token is a maximal run of letters or digits; everything else separates tokens.
+ * - Tokens are case-folded so that index and query sides agree.
+ * - Single-letter tokens are dropped (they match almost everything); single digits are kept.
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                addToken(tokens, current);
+            }
+        }
+        if (current.length() > 0) {
+            addToken(tokens, current);
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, StringBuilder current) {
+        if (current.length() > 1 || Character.isDigit(current.charAt(0))) {
+            tokens.add(current.toString());
+        }
+        current.setLength(0);
+    }
+}
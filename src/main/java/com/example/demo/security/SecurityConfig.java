@@ -36,8 +36,8 @@ import org.springframework.http.HttpMethod;
  * - Provide a `PasswordEncoder` and `DaoAuthenticationProvider` wired with our
  *   `CustomUserDetailsService`.
  * - Expose the `AuthenticationManager` so controllers/services can perform explicit auth.
- * - Disable CSRF (typical for stateless APIs), permit `/api/auth/**` endpoints, and
- *   require authentication for all other routes.
+ * - Disable CSRF (typical for stateless APIs), permit `/api/auth/**` endpoints and the cart
+ *   (guest carts), and require authentication for all other routes.
  */
 public class SecurityConfig {
 
@@ -56,10 +56,13 @@ public class SecurityConfig {
                 // public GET product/category browsing (order matters!)
                 .requestMatchers(HttpMethod.GET, "/api/products", "/api/products/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/categories", "/api/categories/**").permitAll()
+                // batch product lookup is a read, even though long id lists are POSTed
+                .requestMatchers(HttpMethod.POST, "/api/products/batch").permitAll()
                 // /api/auth/me requires authentication
                 .requestMatchers("/api/auth/me").authenticated()
-                // cart endpoints require authentication (user can access their own cart)
-                .requestMatchers("/api/cart", "/api/cart/**").authenticated()
+                // cart endpoints are open: authenticated users get their own cart, anonymous
+                // visitors a guest cart (signed cookie) that is merged into their cart at login
+                .requestMatchers("/api/cart", "/api/cart/**").permitAll()
                 // orders endpoints require authentication
                 .requestMatchers("/api/orders", "/api/orders/**").authenticated()
                 // wishlist endpoints require authentication
@@ -76,7 +79,6 @@ public class SecurityConfig {
                 // Admin-only file upload endpoint
                 .requestMatchers("/api/admin/upload/**").hasRole("ADMIN")
                 // ✅ Admins can access these (everyone authenticated)
-                .requestMatchers("/api/cart", "/api/cart/**").authenticated()
                 .requestMatchers("/api/orders", "/api/orders/**").authenticated()
                 .requestMatchers("/api/wishlist", "/api/wishlist/**").authenticated()
                 
@@ -123,7 +125,7 @@ public class SecurityConfig {
             "http://localhost:3000",
             "http://localhost:8080"
         ));
-        configuration.setAllowedMethods(java.util.Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(java.util.Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(java.util.List.of("*"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -12,6 +12,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class ProductSeeder implements CommandLineRunner {
@@ -37,23 +41,34 @@ public class ProductSeeder implements CommandLineRunner {
             logger.warn("No products fetched from Fake Store API.");
             return;
         }
-        int seededCount = 0;
+        // resolve categories from memory; create missing ones in one batch
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(category.getName(), category);
+        }
+        List<Category> newCategories = new ArrayList<>();
         for (FakeStoreProduct fsProduct : products) {
-            Category category = categoryRepository.findByName(fsProduct.category).orElse(null);
-            if (category == null) {
-                category = new Category();
+            if (!categories.containsKey(fsProduct.category)) {
+                Category category = new Category();
                 category.setName(fsProduct.category);
-                category = categoryRepository.save(category);
+                categories.put(fsProduct.category, category);
+                newCategories.add(category);
             }
+        }
+        categoryRepository.saveAll(newCategories);
+
+        List<Product> toSave = new ArrayList<>(products.length);
+        for (FakeStoreProduct fsProduct : products) {
             Product product = new Product();
             product.setName(fsProduct.title);
             product.setDescription(fsProduct.description);
             product.setPrice(BigDecimal.valueOf(fsProduct.price));
             product.setImageUrl(fsProduct.image);
-            product.setCategory(category);
-            productRepository.save(product);
-            seededCount++;
+            product.setCategory(categories.get(fsProduct.category));
+            toSave.add(product);
         }
+        // one transaction, JDBC-batched inserts (pooled sequence ids)
+        int seededCount = productRepository.saveAll(toSave).size();
         logger.info("Seeded {} products", seededCount);
     }
 }
@@ -1,114 +1,211 @@
 package com.example.demo.service;
 
-import com.example.demo.entity.CartItem;
-import com.example.demo.entity.Product;
-import com.example.demo.entity.User;
-import com.example.demo.repository.CartItemRepository;
-import com.example.demo.repository.ProductRepository;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.cart.CartPricing;
+import com.example.demo.cart.CartStore;
+import com.example.demo.cart.GuestCartStore;
 import com.example.demo.dto.cart.CartResponse;
+import com.example.demo.dto.cart.CartItemOperation;
 import com.example.demo.dto.cart.CartItemResponse;
+import com.example.demo.dto.product.ProductBatchResponse;
+import com.example.demo.dto.product.ProductResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Cart operations on top of {@link CartStore}.
+ *
+ * Carts are read and written in memory; `cart_items` is updated by the store's write-behind
+ * flusher. Product details come from the product cache (one query for any misses); totals are
+ * computed by {@link CartPricing}, the same way checkout computes the order total.
+ *
+ * Anonymous visitors get the same operations on a guest cart ({@link GuestCartStore}, memory
+ * only), which is merged into their user cart when they log in or register.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CartService {
     
-    private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CartStore cartStore;
+    private final GuestCartStore guestCartStore;
+    private final ProductService productService;
+    private final CartPricing cartPricing;
+
+    @Value("${cart.batch.max-operations:100}")
+    private int maxBatchOperations;
 
-    @Transactional
     public CartItemResponse addToCart(Long userId, Long productId, Integer quantity) {
         log.info("🛒 [CartService] addToCart - userId: {}, productId: {}, quantity: {}", userId, productId, quantity);
         
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> {
-                log.error("❌ [CartService] User not found: {}", userId);
-                return new RuntimeException("User not found");
-            });
-        
-        log.info("✅ [CartService] User found: {}", user.getEmail());
-        
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> {
-                log.error("❌ [CartService] Product not found: {}", productId);
-                return new RuntimeException("Product not found");
-            });
+        // Served from the product cache; throws 404 if the product does not exist
+        ProductResponse product = productService.findResponseById(productId);
         
         log.info("✅ [CartService] Product found: {}", product.getName());
 
-        // Check if item already exists in cart
-        CartItem cartItem = cartItemRepository
-            .findByUserIdAndProductId(userId, productId)
-            .orElse(null);
-
-        if (cartItem != null) {
-            log.info("🛒 [CartService] Item already in cart, updating quantity from {} to {}", 
-                     cartItem.getQuantity(), cartItem.getQuantity() + quantity);
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-        } else {
-            log.info("🛒 [CartService] Creating new cart item");
-            cartItem = CartItem.builder()
-                .user(user)
-                .product(product)
-                .quantity(quantity)
-                .build();
-        }
-
-        CartItem saved = cartItemRepository.save(cartItem);
-        log.info("✅ [CartService] Cart item saved successfully: {}", saved.getId());
+        int updated = cartStore.add(userId, productId, quantity);
+        log.info("✅ [CartService] Cart line now has quantity {}", updated);
         
-        return toCartItemResponse(saved);
+        return toCartItemResponse(product, updated);
     }
 
     public CartResponse getCart(Long userId) {
-        List<CartItem> items = cartItemRepository.findByUserId(userId);
-        
-        List<CartItemResponse> itemResponses = items.stream()
-            .map(this::toCartItemResponse)
-            .collect(Collectors.toList());
+        return toCartResponse(cartStore.get(userId));
+    }
 
-        return CartResponse.builder()
-            .items(itemResponses)
-            .build();
+    /**
+     * Apply a batch of line changes and return the resulting cart.
+     *
+     * All products are resolved up front (product cache, then one query for the rest); if any is
+     * unknown nothing is applied. The changes are applied to the cart in one step and reach
+     * `cart_items` with the next batched write-behind flush.
+     *
+     * @throws ResponseStatusException 400 if more than `cart.batch.max-operations` operations are sent,
+     *         404 if a product does not exist
+     */
+    public CartResponse applyOperations(Long userId, List<CartItemOperation> operations) {
+        validateOperations(operations);
+        cartStore.applyAll(userId, operations);
+        log.info("✅ [CartService] Applied {} cart operations for user {}", operations.size(), userId);
+        return getCart(userId);
     }
 
-    @Transactional
     public void removeFromCart(Long userId, Long productId) {
-        cartItemRepository.deleteByUserIdAndProductId(userId, productId);
+        cartStore.remove(userId, productId);
     }
 
-    @Transactional
     public CartItemResponse updateQuantity(Long userId, Long productId, Integer quantity) {
-        CartItem cartItem = cartItemRepository
-            .findByUserIdAndProductId(userId, productId)
-            .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        if (cartStore.getQuantity(userId, productId) == null) {
+            throw new RuntimeException("Cart item not found");
+        }
 
         if (quantity <= 0) {
-            cartItemRepository.delete(cartItem);
+            cartStore.remove(userId, productId);
             return null;
         }
 
-        cartItem.setQuantity(quantity);
-        CartItem updated = cartItemRepository.save(cartItem);
-        return toCartItemResponse(updated);
+        cartStore.set(userId, productId, quantity);
+        return toCartItemResponse(productService.findResponseById(productId), quantity);
+    }
+
+    // ============================================
+    // GUEST CARTS
+    // ============================================
+
+    public CartItemResponse addToGuestCart(String guestId, Long productId, Integer quantity) {
+        ProductResponse product = productService.findResponseById(productId);
+        int updated = guestCartStore.add(guestId, productId, quantity);
+        return toCartItemResponse(product, updated);
+    }
+
+    public CartResponse getGuestCart(String guestId) {
+        return toCartResponse(guestCartStore.get(guestId));
+    }
+
+    /** Same as {@link #applyOperations} for a guest cart. */
+    public CartResponse applyGuestOperations(String guestId, List<CartItemOperation> operations) {
+        validateOperations(operations);
+        guestCartStore.applyAll(guestId, operations);
+        return getGuestCart(guestId);
+    }
+
+    public void removeFromGuestCart(String guestId, Long productId) {
+        guestCartStore.remove(guestId, productId);
+    }
+
+    public CartItemResponse updateGuestQuantity(String guestId, Long productId, Integer quantity) {
+        if (guestCartStore.getQuantity(guestId, productId) == null) {
+            throw new RuntimeException("Cart item not found");
+        }
+
+        if (quantity <= 0) {
+            guestCartStore.remove(guestId, productId);
+            return null;
+        }
+
+        guestCartStore.set(guestId, productId, quantity);
+        return toCartItemResponse(productService.findResponseById(productId), quantity);
+    }
+
+    /**
+     * Move a guest cart into the user's cart (quantities of the same product add up). The lines are
+     * written to `cart_items` with one batched upsert before this returns; if that fails the guest
+     * cart is put back and the exception propagates.
+     */
+    public void mergeGuestCart(String guestId, Long userId) {
+        Map<Long, Integer> lines = guestCartStore.take(guestId);
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            cartStore.merge(userId, lines);
+        } catch (RuntimeException e) {
+            guestCartStore.restore(guestId, lines);
+            throw e;
+        }
+        log.info("✅ [CartService] Merged {} guest cart lines into the cart of user {}", lines.size(), userId);
+    }
+
+    private CartResponse toCartResponse(Map<Long, Integer> lines) {
+        // lines of products deleted meanwhile have no product and are skipped
+        List<ProductResponse> products = productService.findResponsesInOrder(new ArrayList<>(lines.keySet()));
+        List<CartItemResponse> itemResponses = new ArrayList<>(products.size());
+        long[] unitCents = new long[products.size()];
+        int[] quantities = new int[products.size()];
+        int count = 0;
+        for (ProductResponse product : products) {
+            unitCents[count] = CartPricing.toCents(product.getPrice());
+            quantities[count++] = lines.get(product.getId());
+        }
+        CartPricing.Totals totals = cartPricing.price(unitCents, quantities, count);
+        for (int i = 0; i < count; i++) {
+            itemResponses.add(toCartItemResponse(products.get(i), quantities[i], totals.lineCents(i)));
+        }
+
+        return CartResponse.builder()
+            .items(itemResponses)
+            .itemCount(totals.itemCount())
+            .subtotal(CartPricing.toAmount(totals.subtotalCents()))
+            .total(CartPricing.toAmount(totals.totalCents()))
+            .build();
+    }
+
+    /* @throws ResponseStatusException 400 above `cart.batch.max-operations`, 404 for unknown products */
+    private void validateOperations(List<CartItemOperation> operations) {
+        if (operations.size() > maxBatchOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchOperations + " cart operations can be sent at once");
+        }
+        List<Long> productIds = new ArrayList<>(operations.size());
+        for (CartItemOperation operation : operations) {
+            productIds.add(operation.getProductId());
+        }
+        ProductBatchResponse products = productService.findBatch(productIds);
+        if (!products.getMissingIds().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Products not found: " + products.getMissingIds());
+        }
+    }
+
+    private CartItemResponse toCartItemResponse(ProductResponse product, int quantity) {
+        return toCartItemResponse(product, quantity,
+                CartPricing.lineCents(CartPricing.toCents(product.getPrice()), quantity));
     }
 
-    private CartItemResponse toCartItemResponse(CartItem item) {
+    private CartItemResponse toCartItemResponse(ProductResponse product, int quantity, long lineCents) {
         return CartItemResponse.builder()
-            .productId(item.getProduct().getId())
-            .name(item.getProduct().getName())
-            .description(item.getProduct().getDescription())
-            .price(item.getProduct().getPrice())
-            .imageUrl(item.getProduct().getImageUrl())
-            .quantity(item.getQuantity())
+            .productId(product.getId())
+            .name(product.getName())
+            .description(product.getDescription())
+            .price(product.getPrice())
+            .imageUrl(product.getImageUrl())
+            .quantity(quantity)
+            .lineTotal(CartPricing.toAmount(lineCents))
             .build();
     }
 }
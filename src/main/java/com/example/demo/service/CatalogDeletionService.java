@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.dto.admin.DeletionResponse;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * Set-based deletion of categories and products.
+ *
+ * Main concept:
+ * - Deleting through JPA cascades (`Category.products` with orphanRemoval) loads every product
+ *   and removes it row by row. Here dependent `cart_items` and `wishlist` rows and the products
+ *   themselves are removed with a few DELETE ... WHERE ... IN statements per chunk of
+ *   `catalog.delete.chunk-size` products, all in one transaction.
+ * - Products that appear in orders cannot be deleted (order history keeps a foreign key to
+ *   them); the whole deletion is refused with 409 before anything is removed.
+ * - Bypasses the persistence context, so callers must not hold loaded entities of the deleted
+ *   rows. Each deletion is announced after commit with a single {@link ProductsDeletedEvent}
+ *   carrying all removed ids, so listeners do one pass however many products went.
+ */
+@Slf4j
+@Service
+public class CatalogDeletionService {
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public CatalogDeletionService(NamedParameterJdbcTemplate jdbc, ApplicationEventPublisher eventPublisher,
+            @Value("${catalog.delete.chunk-size:1000}") int chunkSize) {
+        this.jdbc = jdbc;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Delete a category with all of its products and their cart and wishlist rows.
+     *
+     * @throws ResponseStatusException 404 if the category does not exist,
+     *         409 if any of its products appears in an order
+     */
+    @Transactional
+    public DeletionResponse deleteCategory(Long categoryId) {
+        long start = System.currentTimeMillis();
+        MapSqlParameterSource category = new MapSqlParameterSource("categoryId", categoryId);
+        Integer exists = jdbc.queryForObject("SELECT COUNT(*) FROM categories WHERE id = :categoryId", category, Integer.class);
+        if (exists == null || exists == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+        }
+        Boolean ordered = jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM order_items oi JOIN products p ON p.id = oi.product_id "
+                        + "WHERE p.category_id = :categoryId)",
+                category, Boolean.class);
+        if (Boolean.TRUE.equals(ordered)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Category contains products that appear in orders and cannot be deleted");
+        }
+
+        DeletionResponse result = DeletionResponse.builder().categoryId(categoryId).build();
+        List<Long> deletedIds = new ArrayList<>();
+        while (true) {
+            List<Long> chunk = jdbc.queryForList(
+                    "SELECT id FROM products WHERE category_id = :categoryId ORDER BY id LIMIT :limit",
+                    new MapSqlParameterSource("categoryId", categoryId).addValue("limit", chunkSize), Long.class);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            deleteChunk(chunk, result);
+            deletedIds.addAll(chunk);
+        }
+        jdbc.update("DELETE FROM categories WHERE id = :categoryId", category);
+        result.setElapsedMs(System.currentTimeMillis() - start);
+
+        if (!deletedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsDeletedEvent(deletedIds, Map.of(categoryId, deletedIds.size())));
+        }
+        eventPublisher.publishEvent(new CategoryDeletedEvent(categoryId));
+        log.info("Deleted category {}: {} products, {} cart items, {} wishlist entries in {}ms",
+                categoryId, result.getProductsDeleted(), result.getCartItemsDeleted(),
+                result.getWishlistEntriesDeleted(), result.getElapsedMs());
+        return result;
+    }
+
+    /**
+     * Delete products together with their cart and wishlist rows. Unknown ids are ignored.
+     *
+     * @throws ResponseStatusException 409 if any of the products appears in an order
+     */
+    @Transactional
+    public DeletionResponse deleteProducts(Collection<Long> productIds) {
+        long start = System.currentTimeMillis();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        DeletionResponse result = DeletionResponse.builder().build();
+        List<Long> deletedIds = new ArrayList<>();
+        Map<Long, Integer> deletedPerCategory = new HashMap<>();
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            Boolean ordered = jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM order_items WHERE product_id IN (:ids))",
+                    new MapSqlParameterSource("ids", chunk), Boolean.class);
+            if (Boolean.TRUE.equals(ordered)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Products that appear in orders cannot be deleted");
+            }
+        }
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            // remember categories for the event before the rows are gone
+            for (Map<String, Object> row : jdbc.queryForList(
+                    "SELECT id, category_id FROM products WHERE id IN (:ids)", new MapSqlParameterSource("ids", chunk))) {
+                deletedIds.add(toLong(row.get("id")));
+                Long categoryId = toLong(row.get("category_id"));
+                if (categoryId != null) {
+                    deletedPerCategory.merge(categoryId, 1, Integer::sum);
+                }
+            }
+            deleteChunk(chunk, result);
+        }
+        result.setElapsedMs(System.currentTimeMillis() - start);
+
+        if (!deletedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsDeletedEvent(deletedIds, deletedPerCategory));
+        }
+        log.info("Deleted {} products, {} cart items, {} wishlist entries in {}ms",
+                result.getProductsDeleted(), result.getCartItemsDeleted(),
+                result.getWishlistEntriesDeleted(), result.getElapsedMs());
+        return result;
+    }
+
+    /* remove one chunk of products and the rows referencing them, adding to the counts */
+    private void deleteChunk(List<Long> productIds, DeletionResponse result) {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", productIds);
+        result.setCartItemsDeleted(result.getCartItemsDeleted()
+                + jdbc.update("DELETE FROM cart_items WHERE product_id IN (:ids)", ids));
+        result.setWishlistEntriesDeleted(result.getWishlistEntriesDeleted()
+                + jdbc.update("DELETE FROM wishlist WHERE product_id IN (:ids)", ids));
+        result.setProductsDeleted(result.getProductsDeleted()
+                + jdbc.update("DELETE FROM products WHERE id IN (:ids)", ids));
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -2,14 +2,18 @@ package com.example.demo.service;
 
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import lombok.RequiredArgsConstructor;
 
+import com.example.demo.cache.CategorySummaryCache;
 import com.example.demo.entity.Category;
+import com.example.demo.event.CategoryChangedEvent;
 import com.example.demo.repository.CategoryRepository;
+import com.example.demo.dto.admin.DeletionResponse;
 import com.example.demo.dto.category.CategoryResponse;
 
 @Service
@@ -17,31 +21,53 @@ import com.example.demo.dto.category.CategoryResponse;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategorySummaryCache categorySummaryCache;
+    private final CatalogDeletionService catalogDeletionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Category> findAll() {
         return categoryRepository.findAll();
     }
 
+    /** Summaries (with product counts) of all categories, served from {@link CategorySummaryCache}. */
+    public List<CategoryResponse> findAllSummaries() {
+        return categorySummaryCache.getAll();
+    }
+
+    /** Summary (with product count) of one category, served from {@link CategorySummaryCache}. */
+    public CategoryResponse findSummaryById(Long id) {
+        CategoryResponse summary = categorySummaryCache.get(id);
+        if (summary == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+        }
+        return summary;
+    }
+
     public Category findById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
     }
 
     public Category create(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved));
+        return saved;
     }
 
     public Category update(Long id, Category category) {
         Category existing = findById(id);
         existing.setName(category.getName());
-        return categoryRepository.save(existing);
+        Category saved = categoryRepository.save(existing);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved));
+        return saved;
     }
 
-    public void delete(Long id) {
-        if (!categoryRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
-        }
-        categoryRepository.deleteById(id);
+    /**
+     * Delete a category with its products (and their cart / wishlist rows) using set-based
+     * statements; see {@link CatalogDeletionService#deleteCategory}.
+     */
+    public DeletionResponse delete(Long id) {
+        return catalogDeletionService.deleteCategory(id);
     }
 
     /* Map Category entity to CategoryResponse DTO */
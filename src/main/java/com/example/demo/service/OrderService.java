@@ -2,17 +2,24 @@ package com.example.demo.service;
 
 import com.example.demo.entity.Order;
 import com.example.demo.entity.OrderItem;
-import com.example.demo.entity.CartItem;
+import com.example.demo.entity.Product;
 import com.example.demo.entity.User;
 import com.example.demo.repository.OrderRepository;
-import com.example.demo.repository.CartItemRepository;
+import com.example.demo.repository.ProductRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.dto.order.OrderResponse;
 import com.example.demo.dto.order.OrderItemResponse;
+import com.example.demo.cart.CartPricing;
+import com.example.demo.cart.CartStore;
+import com.example.demo.event.OrderPlacedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
@@ -21,8 +28,11 @@ import java.math.BigDecimal;
 public class OrderService {
     
     private final OrderRepository orderRepository;
-    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final CartStore cartStore;
+    private final CartPricing cartPricing;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<OrderResponse> getUserOrders(Long userId) {
         List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
@@ -41,15 +51,25 @@ public class OrderService {
             throw new RuntimeException("Admins cannot place orders. Please use a regular user account.");
         }
         
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+        // the cart lives in CartStore; rows in cart_items may lag behind by one flush
+        Map<Long, Integer> cartLines = cartStore.get(userId);
+        Map<Long, Product> products = productRepository.findAllById(cartLines.keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Map.Entry<Long, Integer>> cartItems = cartLines.entrySet().stream()
+            .filter(line -> products.containsKey(line.getKey()))
+            .collect(Collectors.toList());
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Calculate total
-        BigDecimal total = cartItems.stream()
-            .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate total (same pricing as the cart view)
+        long[] unitCents = new long[cartItems.size()];
+        int[] lineQuantities = new int[cartItems.size()];
+        for (int i = 0; i < cartItems.size(); i++) {
+            unitCents[i] = CartPricing.toCents(products.get(cartItems.get(i).getKey()).getPrice());
+            lineQuantities[i] = cartItems.get(i).getValue();
+        }
+        BigDecimal total = CartPricing.toAmount(cartPricing.price(unitCents, lineQuantities, cartItems.size()).totalCents());
 
         // Create order
         Order order = Order.builder()
@@ -58,21 +78,27 @@ public class OrderService {
             .status(Order.OrderStatus.PENDING)
             .build();
         
-        // Create order items from cart items
-        for (CartItem cartItem : cartItems) {
+        // Create order items from cart lines
+        for (Map.Entry<Long, Integer> cartItem : cartItems) {
+            Product product = products.get(cartItem.getKey());
             OrderItem orderItem = OrderItem.builder()
                 .order(order)
-                .product(cartItem.getProduct())
-                .quantity(cartItem.getQuantity())
-                .price(cartItem.getProduct().getPrice())
+                .product(product)
+                .quantity(cartItem.getValue())
+                .price(product.getPrice())
                 .build();
             order.getItems().add(orderItem);
         }
 
         Order savedOrder = orderRepository.save(order);
-        
-        // Clear cart after checkout
-        cartItemRepository.deleteAll(cartItems);
+
+        // ordered quantities leave the cart (memory and cart_items) in this transaction
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : savedOrder.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        cartStore.removeOrdered(userId, quantities);
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder.getId(), userId, quantities));
 
         return toOrderResponse(savedOrder);
     }
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * Short-lived cache of product counts per filter combination.
+ *
+ * Main concept:
+ * - Slice listings skip the exact COUNT query; clients that still want a total get this cached
+ *   value, refreshed at most once per TTL for each distinct filter combination.
+ * - Values are approximate by design: mutations are not tracked, entries simply expire.
+ * - Covers category and price filters only; name searches are counted on the text index.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCountCache {
+
+    /** Upper bound on distinct filter combinations kept; the cache is reset when exceeded. */
+    private static final int MAX_ENTRIES = 1024;
+
+    private final ProductRepository productRepository;
+
+    private final ConcurrentHashMap<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    @Value("${catalog.count-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    public long approximateCount(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        String key = key(categoryId, minPrice, maxPrice);
+        long now = System.currentTimeMillis();
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.value;
+        }
+        long value = productRepository.countMatching(categoryId, minPrice, maxPrice);
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.clear();
+        }
+        counts.put(key, new CachedCount(value, now + ttlSeconds * 1000));
+        return value;
+    }
+
+    private static String key(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        return (categoryId == null ? "" : categoryId) + "|"
+                + (minPrice == null ? "" : minPrice.stripTrailingZeros().toPlainString()) + '|'
+                + (maxPrice == null ? "" : maxPrice.stripTrailingZeros().toPlainString());
+    }
+
+    private static final class CachedCount {
+        private final long value;
+        private final long expiresAt;
+
+        CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
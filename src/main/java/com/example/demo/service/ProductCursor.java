@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.demo.search.CatalogSnapshot;
+
+/**
+ * Opaque keyset cursor for product listings.
+ *
+ * Main concept:
+ * - Encodes the (sort key, id) tuple of the last row of a page, so the next page can be fetched
+ *   with a seek predicate such as `(price, id) > (?, ?)` instead of OFFSET.
+ * - The token is URL-safe Base64 of `ORDER:price:id`; clients must treat it as opaque.
+ */
+final class ProductCursor {
+
+    /** Orderings that have a matching seek query in ProductRepository and on CatalogSnapshot. */
+    enum Order {
+        ID_ASC,
+        ID_DESC,
+        PRICE_ASC,
+        PRICE_DESC;
+
+        CatalogSnapshot.SortKey sortKey() {
+            return this == ID_ASC || this == ID_DESC ? CatalogSnapshot.SortKey.ID : CatalogSnapshot.SortKey.PRICE;
+        }
+
+        boolean isDescending() {
+            return this == ID_DESC || this == PRICE_DESC;
+        }
+
+        /* map a Spring Data sort (first order only) to a keyset ordering */
+        static Order from(Sort sort) {
+            Sort.Order first = sort.stream().findFirst().orElse(null);
+            if (first == null) {
+                return ID_ASC;
+            }
+            if (first.getProperty().equals("id")) {
+                return first.isAscending() ? ID_ASC : ID_DESC;
+            }
+            if (first.getProperty().equals("price")) {
+                return first.isAscending() ? PRICE_ASC : PRICE_DESC;
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cursor pagination supports sort=id[,asc|desc] or sort=price[,asc|desc] only");
+        }
+    }
+
+    private final Order order;
+    private final BigDecimal price;
+    private final long id;
+
+    private ProductCursor(Order order, BigDecimal price, long id) {
+        this.order = order;
+        this.price = price;
+        this.id = id;
+    }
+
+    /** Cursor positioned before the first row of the given ordering. */
+    static ProductCursor start(Order order) {
+        return switch (order) {
+            case ID_ASC, PRICE_ASC -> new ProductCursor(order, BigDecimal.ONE.negate(), 0L);
+            case ID_DESC -> new ProductCursor(order, BigDecimal.ONE.negate(), Long.MAX_VALUE);
+            case PRICE_DESC -> new ProductCursor(order, ProductService.PRICE_CEILING.add(BigDecimal.ONE), Long.MAX_VALUE);
+        };
+    }
+
+    /** Cursor positioned after the given row. */
+    static ProductCursor after(Order order, BigDecimal price, long id) {
+        return new ProductCursor(order, price, id);
+    }
+
+    /**
+     * Decode a client-supplied token; a blank token means "first page".
+     *
+     * @throws ResponseStatusException 400 if the token is malformed or was issued for another ordering
+     */
+    static ProductCursor decode(String token, Order expected) {
+        if (token == null || token.isBlank()) {
+            return start(expected);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            Order order = Order.valueOf(parts[0]);
+            if (order != expected) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor was issued for a different sort");
+            }
+            return new ProductCursor(order, new BigDecimal(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    String encode() {
+        String raw = order.name() + ":" + price.toPlainString() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    BigDecimal getPrice() {
+        return price;
+    }
+
+    long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Product;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * Streaming export of the whole catalog as NDJSON or CSV.
+ *
+ * Main concept:
+ * - Products are read through a forward-only JDBC cursor ({@link ProductRepository#streamAllForExport})
+ *   inside a read-only transaction, written out and detached one by one, so memory use does not
+ *   grow with the catalog.
+ * - Output is flushed after the first row and then every {@link #FLUSH_EVERY} rows, so the client
+ *   starts receiving data immediately.
+ * - Columns/properties are id, name, description, price, category, imageUrl; the output can be
+ *   fed back into {@link ProductImportService}.
+ */
+@Slf4j
+@Service
+public class ProductExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int FLUSH_EVERY = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Return a body that writes every product in id order in the given format.
+     * The database work happens when the body is written, on the async request thread.
+     */
+    public StreamingResponseBody export(String format) {
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            long start = System.currentTimeMillis();
+            long rows;
+            try (Stream<Product> products = productRepository.streamAllForExport()) {
+                rows = FORMAT_CSV.equals(format) ? writeCsv(products, out) : writeNdjson(products, out);
+            } catch (IOException e) {
+                // typically the client went away; nothing more to send
+                throw new UncheckedIOException(e);
+            }
+            log.info("Product export ({}) streamed {} rows in {}ms", format, rows, System.currentTimeMillis() - start);
+        });
+    }
+
+    private long writeNdjson(Stream<Product> products, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        long rows = 0;
+        for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+            Product product = it.next();
+            Category category = product.getCategory();
+            json.writeStartObject();
+            json.writeNumberField("id", product.getId());
+            json.writeStringField("name", product.getName());
+            json.writeStringField("description", product.getDescription());
+            json.writeNumberField("price", product.getPrice());
+            json.writeStringField("category", category != null ? category.getName() : null);
+            json.writeStringField("imageUrl", product.getImageUrl());
+            json.writeEndObject();
+            json.writeRaw('\n');
+            entityManager.detach(product);
+            if (++rows == 1 || rows % FLUSH_EVERY == 0) {
+                json.flush();
+            }
+        }
+        json.flush();
+        return rows;
+    }
+
+    private long writeCsv(Stream<Product> products, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writer.write("id,name,description,price,category,imageUrl\n");
+        writer.flush();
+        long rows = 0;
+        for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+            Product product = it.next();
+            Category category = product.getCategory();
+            writer.write(String.valueOf(product.getId()));
+            writer.write(',');
+            writeCsvField(writer, product.getName());
+            writer.write(',');
+            writeCsvField(writer, product.getDescription());
+            writer.write(',');
+            writer.write(product.getPrice() != null ? product.getPrice().toPlainString() : "");
+            writer.write(',');
+            writeCsvField(writer, category != null ? category.getName() : null);
+            writer.write(',');
+            writeCsvField(writer, product.getImageUrl());
+            writer.write('\n');
+            entityManager.detach(product);
+            if (++rows == 1 || rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /* quote the field if it contains a separator, quote or line break; double embedded quotes */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
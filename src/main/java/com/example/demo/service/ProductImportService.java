@@ -0,0 +1,442 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.example.demo.dto.admin.ProductImportResponse;
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Product;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.repository.CategoryRepository;
+
+/**
+ * Streaming bulk import of products from CSV or NDJSON.
+ *
+ * Main concept:
+ * - The request body is parsed row by row and never held in memory as a whole.
+ * - Rows are persisted in chunks, one transaction per chunk; the persistence context is cleared
+ *   after each chunk. With pooled sequence ids and `hibernate.jdbc.batch_size`, every chunk turns
+ *   into a handful of multi-row INSERT batches.
+ * - Categories are resolved by name from an in-memory map loaded once per import; unknown names
+ *   are created on the fly and added to the map.
+ * - In-memory catalog views are rebuilt once at the end ({@link CatalogImportedEvent}) instead of
+ *   being updated per row.
+ *
+ * Responsibilities:
+ * - Validate rows (name and non-negative price required); invalid rows are counted and skipped.
+ *   A database error aborts the import; chunks committed before it stay imported.
+ * - Track progress of running and recent imports for the status endpoint.
+ *
+ * CSV format: a header row naming the columns `name`, `price` and optionally `description`,
+ * `category`, `imageUrl` (any order); fields may be double-quoted. NDJSON: one JSON object per
+ * line with the same property names.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    /** Rejected rows reported back in detail; the rest are only counted. */
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    /** Finished imports kept for the status endpoint. */
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public ProductImportService(CategoryRepository categoryRepository, ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${catalog.import.chunk-size:1000}") int chunkSize) {
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import all rows of `body` and return the final result.
+     *
+     * @param format {@link #FORMAT_CSV} or {@link #FORMAT_NDJSON}
+     * @throws ResponseStatusException 400 if the CSV header is missing required columns
+     */
+    public ProductImportResponse importProducts(InputStream body, String format) throws IOException {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.id, job);
+        log.info("Product import {} started ({})", job.id, format);
+
+        Map<String, Long> categoryIds = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categoryIds.put(category.getName(), category.getId());
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            RowReader rows = FORMAT_CSV.equals(format) ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                job.rowsRead.incrementAndGet();
+                String problem = row.validate();
+                if (problem != null) {
+                    job.reject("row " + job.rowsRead.get() + ": " + problem);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    persistChunk(chunk, categoryIds, job);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                persistChunk(chunk, categoryIds, job);
+            }
+            job.finish("COMPLETED", null);
+        } catch (ResponseStatusException e) {
+            job.finish("FAILED", e.getReason());
+            throw e;
+        } catch (RuntimeException | IOException e) {
+            job.finish("FAILED", e.getMessage());
+            log.error("Product import {} failed after {} rows", job.id, job.rowsRead.get(), e);
+            throw e;
+        } finally {
+            if (job.imported.get() > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(job.imported.get()));
+            }
+            trimFinishedJobs();
+        }
+
+        ProductImportResponse result = job.toResponse();
+        log.info("Product import {} finished: {} imported, {} rejected, {} categories created in {}ms ({} rows/s)",
+                job.id, result.getImported(), result.getFailed(), result.getCategoriesCreated(),
+                result.getElapsedMs(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /** Progress of running imports and results of recent ones, newest last. */
+    public List<ProductImportResponse> getJobs() {
+        synchronized (jobs) {
+            return jobs.values().stream().map(ImportJob::toResponse).toList();
+        }
+    }
+
+    public ProductImportResponse getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found");
+        }
+        return job.toResponse();
+    }
+
+    /* persist one chunk in its own transaction; new categories are created on the way */
+    private void persistChunk(List<ImportRow> chunk, Map<String, Long> categoryIds, ImportJob job) {
+        List<Category> createdCategories = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ImportRow row : chunk) {
+                Category category = null;
+                if (row.category != null) {
+                    Long categoryId = categoryIds.get(row.category);
+                    if (categoryId == null) {
+                        category = Category.builder().name(row.category).build();
+                        entityManager.persist(category);
+                        categoryIds.put(row.category, category.getId());
+                        createdCategories.add(category);
+                    } else {
+                        category = entityManager.getReference(Category.class, categoryId);
+                    }
+                }
+                entityManager.persist(Product.builder()
+                        .name(row.name)
+                        .description(row.description)
+                        .price(row.price)
+                        .imageUrl(row.imageUrl)
+                        .category(category)
+                        .build());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        job.imported.addAndGet(chunk.size());
+        job.categoriesCreated.addAndGet(createdCategories.size());
+        for (Category category : createdCategories) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(category));
+        }
+        log.debug("Product import {}: {} rows imported", job.id, job.imported.get());
+    }
+
+    private void trimFinishedJobs() {
+        synchronized (jobs) {
+            long finished = jobs.values().stream().filter(j -> j.status != null && !"RUNNING".equals(j.status)).count();
+            Iterator<ImportJob> it = jobs.values().iterator();
+            while (finished > MAX_FINISHED_JOBS && it.hasNext()) {
+                ImportJob job = it.next();
+                if (!"RUNNING".equals(job.status)) {
+                    it.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // ROW PARSING
+    // ============================================
+
+    private static final class ImportRow {
+        private String name;
+        private String description;
+        private BigDecimal price;
+        private String category;
+        private String imageUrl;
+        private String parseError;
+
+        /* null if the row can be imported, otherwise the reason it cannot */
+        String validate() {
+            if (parseError != null) {
+                return parseError;
+            }
+            if (name == null || name.isBlank()) {
+                return "name is required";
+            }
+            if (price == null || price.signum() < 0) {
+                return "price must be a non-negative number";
+            }
+            return null;
+        }
+
+        void set(String column, String value) {
+            String v = value == null || value.isBlank() ? null : value.trim();
+            switch (column) {
+                case "name" -> name = v;
+                case "description" -> description = v;
+                case "category" -> category = v;
+                case "imageUrl" -> imageUrl = v;
+                case "price" -> {
+                    try {
+                        price = v == null ? null : new BigDecimal(v);
+                    } catch (NumberFormatException e) {
+                        parseError = "invalid price '" + v + "'";
+                    }
+                }
+                default -> {
+                    // unknown columns are ignored
+                }
+            }
+        }
+    }
+
+    private interface RowReader {
+        /* next row, or null at end of input */
+        ImportRow next() throws IOException;
+    }
+
+    /* one JSON object per line; blank lines are skipped */
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            ImportRow row = new ImportRow();
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                node.fields().forEachRemaining(field ->
+                        row.set(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+            } catch (IOException e) {
+                row.parseError = "invalid JSON";
+            }
+            return row;
+        }
+    }
+
+    /* RFC 4180 style: comma separated, optional double quotes, "" escapes a quote inside quotes */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final String[] header;
+
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> columns = readRecord();
+            List<String> names = columns == null ? List.of() : columns.stream().map(String::trim).toList();
+            if (!names.contains("name") || !names.contains("price")) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "CSV header must contain at least the columns 'name' and 'price'");
+            }
+            this.header = names.toArray(String[]::new);
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+            ImportRow row = new ImportRow();
+            for (int i = 0; i < header.length && i < fields.size(); i++) {
+                row.set(header[i], fields.get(i));
+            }
+            return row;
+        }
+
+        /* read one record, which may span lines when a quoted field contains newlines */
+        private List<String> readRecord() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    String more = reader.readLine();
+                    if (more == null) {
+                        break;
+                    }
+                    field.append('\n');
+                    line = more;
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // ============================================
+    // PROGRESS
+    // ============================================
+
+    private static final class ImportJob {
+        private final String id;
+        private final String format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong categoriesCreated = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile String status = "RUNNING";
+        private volatile long endNanos;
+
+        ImportJob(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void reject(String error) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        void finish(String finalStatus, String reason) {
+            endNanos = System.nanoTime();
+            if (reason != null) {
+                errors.add(reason);
+            }
+            status = finalStatus;
+        }
+
+        ProductImportResponse toResponse() {
+            long elapsedNanos = (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+            long elapsedMs = elapsedNanos / 1_000_000;
+            synchronized (errors) {
+                return ProductImportResponse.builder()
+                        .jobId(id)
+                        .format(format)
+                        .status(status)
+                        .startedAt(startedAt)
+                        .rowsRead(rowsRead.get())
+                        .imported(imported.get())
+                        .failed(failed.get())
+                        .categoriesCreated((int) categoriesCreated.get())
+                        .elapsedMs(elapsedMs)
+                        .rowsPerSecond(elapsedNanos == 0 ? 0.0 : rowsRead.get() * 1_000_000_000.0 / elapsedNanos)
+                        .errors(List.copyOf(errors))
+                        .build();
+            }
+        }
+    }
+}
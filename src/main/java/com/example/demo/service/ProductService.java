@@ -1,6 +1,15 @@
 package com.example.demo.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.math.BigDecimal;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -9,20 +18,43 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import lombok.RequiredArgsConstructor;
 
+import com.example.demo.cache.ProductCache;
+import com.example.demo.cache.SearchResultCache;
 import com.example.demo.entity.Product;
+import com.example.demo.dto.product.CategoryFacetResponse;
+import com.example.demo.dto.product.ProductBatchResponse;
+import com.example.demo.dto.product.CursorPageResponse;
+import com.example.demo.dto.product.PriceBucketFacetResponse;
 import com.example.demo.dto.product.ProductResponse;
+import com.example.demo.dto.product.ProductSearchResponse;
+import com.example.demo.dto.product.RelatedProductResponse;
+import com.example.demo.dto.product.SliceResponse;
+import com.example.demo.dto.product.SuggestionResponse;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.exception.SearchUnavailableException;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.search.CatalogSnapshot;
+import com.example.demo.search.CoPurchaseIndex;
+import com.example.demo.search.ProductFuzzyIndex;
+import com.example.demo.search.ProductSuggestIndex;
+import com.example.demo.search.ProductTextIndex;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +71,34 @@ public class ProductService {
     
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
 
+    /** Lower bound used when a price range is open at the bottom. */
+    static final BigDecimal PRICE_FLOOR = BigDecimal.ZERO;
+
+    /** Upper bound used when a price range is open at the top (max of NUMERIC(19,2)). */
+    static final BigDecimal PRICE_CEILING = new BigDecimal("99999999999999999.99");
+
+    /** Retry-After sent while name searches wait for the in-memory structures to be built. */
+    private static final int SEARCH_RETRY_AFTER_SECONDS = 5;
+
     private final ProductRepository productRepository;
+    private final ProductTextIndex productTextIndex;
+    private final ProductCountCache productCountCache;
+    private final ProductCache productCache;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final SearchResultCache searchResultCache;
+    private final ProductFuzzyIndex productFuzzyIndex;
+    private final CatalogDeletionService catalogDeletionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Maximum number of ids accepted by {@link #findBatch}. */
+    @Value("${catalog.batch.max-size:100}")
+    private int maxBatchSize;
+
+    /** Price bucket boundaries used when a faceted search does not specify its own. */
+    @Value("${catalog.facets.price-buckets:25,50,100,250}")
+    private BigDecimal[] defaultPriceBuckets;
 
     public List<Product> findAll() {
         return productRepository.findAll();
@@ -50,42 +109,501 @@ public class ProductService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
     }
 
+    /**
+     * Return the product as a response DTO, served from {@link ProductCache} when possible.
+     * Use {@link #findById} instead when a managed entity is needed (e.g. to modify it).
+     */
+    public ProductResponse findResponseById(Long id) {
+        ProductResponse response = productCache.get(id,
+                key -> productRepository.findResponseById(key).orElse(null));
+        if (response == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        return response;
+    }
+
+    /**
+     * Resolve many products at once, in the requested order.
+     *
+     * Main concept:
+     * - Ids already in {@link ProductCache} are answered from memory; all others are loaded with a
+     *   single projection query that joins categories, instead of one round trip per id.
+     * - Duplicate and null ids are ignored; ids that do not exist are reported in `missingIds`.
+     *
+     * @throws ResponseStatusException 400 if more than `catalog.batch.max-size` distinct ids are requested
+     */
+    public ProductBatchResponse findBatch(List<Long> ids) {
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids.size());
+        for (Long id : ids) {
+            if (id != null) {
+                requested.add(id);
+            }
+        }
+        if (requested.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " product ids can be requested at once");
+        }
+
+        Map<Long, ProductResponse> found = new HashMap<>(requested.size() * 2);
+        List<Long> toLoad = new ArrayList<>();
+        for (Long id : requested) {
+            ProductResponse cached = productCache.peek(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                toLoad.add(id);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            for (ProductResponse response : productRepository.findResponsesByIdIn(toLoad)) {
+                found.put(response.getId(), response);
+            }
+        }
+
+        List<ProductResponse> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            ProductResponse response = found.get(id);
+            if (response != null) {
+                items.add(response);
+            } else {
+                missing.add(id);
+            }
+        }
+        log.info("Batch lookup: {} ids -> {} cached, {} loaded, {} missing",
+                requested.size(), requested.size() - toLoad.size(), toLoad.size() - missing.size(), missing.size());
+        return ProductBatchResponse.builder()
+                .items(items)
+                .missingIds(missing)
+                .build();
+    }
+
     public Product create(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
+        return saved;
     }
 
     /**
      * Search products with pagination and optional filters.
      *
      * Main concept:
-     * - Provide a single entry point for paged product searches that maps repository Page<Product>
-     *   to Page<ProductResponse>.
+     * - Provide a single entry point for paged product searches. Repository queries build
+     *   ProductResponse DTOs directly (constructor expressions), so no entities are hydrated.
+     * - Evaluate filters and sorting in memory on {@link CatalogSnapshot} when possible and only
+     *   load the requested page from the database; otherwise pick the most selective repository
+     *   query for the given filter combination (see {@link SearchPlan}).
+     *
+     * Name matching:
+     * - `name` is always matched on {@link ProductTextIndex}: every token must match a word by
+     *   prefix (single letters are ignored), ranked by relevance when unsorted. There is no
+     *   substring fallback, so one URL gives the same results whatever state the node is in.
+     * - Until the index and {@link CatalogSnapshot} are first built after startup, name
+     *   searches fail with 503 and a `Retry-After` header instead of being answered differently.
+     * - Name searches must be paged and sorted by at most one id/price/name order.
      *
-     * Priority of filters (simple approach):
-     * - If `name` is provided, performs a name-based search.
-     * - Else if `categoryName` and both min/max prices are provided, searches by category+price range.
-     * - Else if `categoryName` only is provided, searches by category name.
-     * - Else if both min/max provided, searches by price range.
+     * Plan selection:
+     * - If the in-memory structures are ready and the sort is empty or a single id/price/name
+     *   order, filters and sorts on {@link CatalogSnapshot}; this is the only plan for `name`.
+     * - Else if `categoryId` and any price bound are provided, searches by category + price range.
+     * - Else if `categoryId` only is provided, searches by category.
+     * - Else if any price bound is provided, searches by price range.
      * - Otherwise returns all products paged.
+     *
+     * Open price bounds are filled with {@link #PRICE_FLOOR} / {@link #PRICE_CEILING}.
+     *
+     * @throws ResponseStatusException 400 if a name search is unpaged or sorted by anything else
+     * @throws SearchUnavailableException if a name search arrives before the index is built
      */
     public Page<ProductResponse> search(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
             Pageable pageable) {
         long startTime = System.currentTimeMillis();
-        log.info("=== PRODUCT SEARCH START ===");
-        log.info("Parameters: name={}, categoryId={}, minPrice={}, maxPrice={}, page={}, size={}", 
-                 name, categoryId, minPrice, maxPrice, pageable.getPageNumber(), pageable.getPageSize());
-        
-        // Use the simple findAll - it's blazing fast with EAGER fetch and indexes
-        Page<Product> products = productRepository.findAll(pageable);
+        String term = searchTerm(name);
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(null);
+        boolean snapshotSortable = pageable.isPaged()
+                && (order == null || (pageable.getSort().stream().count() == 1 && snapshotSortKey(order) != null));
+        if (term != null) {
+            if (!snapshotSortable) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Name search must be paged and can only sort by id, price or name");
+            }
+            if (!catalogSnapshot.isReady() || !productTextIndex.isReady()) {
+                throw new SearchUnavailableException("Product search index is being built", SEARCH_RETRY_AFTER_SECONDS);
+            }
+        }
+        SearchPlan plan = SearchPlan.choose(categoryId, minPrice, maxPrice, catalogSnapshot.isReady() && snapshotSortable);
+
+        BigDecimal min = minPrice != null ? minPrice : PRICE_FLOOR;
+        BigDecimal max = maxPrice != null ? maxPrice : PRICE_CEILING;
+
+        // a hit skips planning and counting; only the page rows are hydrated
+        AtomicReference<Page<ProductResponse>> loaded = new AtomicReference<>();
+        SearchResultCache.Result cached = searchResultCache.get(term, categoryId, minPrice, maxPrice, pageable, () -> {
+            Page<ProductResponse> page = switch (plan) {
+                case SNAPSHOT -> searchSnapshot(term != null ? productTextIndex.search(term) : null,
+                        categoryId, minPrice, maxPrice, order, pageable);
+                case CATEGORY_PRICE -> productRepository.findResponsesByCategoryIdAndPriceBetween(categoryId, min, max, pageable);
+                case CATEGORY -> productRepository.findResponsesByCategoryId(categoryId, pageable);
+                case PRICE -> productRepository.findResponsesByPriceBetween(min, max, pageable);
+                case ALL -> productRepository.findAllResponses(pageable);
+            };
+            loaded.set(page);
+            return new SearchResultCache.Result(
+                    page.getContent().stream().mapToLong(ProductResponse::getId).toArray(), page.getTotalElements());
+        });
+        Page<ProductResponse> products = loaded.get() != null
+                ? loaded.get()
+                : new PageImpl<>(findResponsesInOrder(Arrays.stream(cached.ids()).boxed().collect(Collectors.toList())),
+                        pageable, cached.total());
         long queryTime = System.currentTimeMillis();
-        log.info("Query executed in {}ms, found {} products", queryTime - startTime, products.getTotalElements());
-        
-        Page<ProductResponse> response = products.map(this::toResponse);
-        long mappingTime = System.currentTimeMillis();
-        log.info("Mapping completed in {}ms", mappingTime - queryTime);
-        log.info("=== TOTAL TIME: {}ms ===", mappingTime - startTime);
-        
-        return response;
+
+        log.info("Search plan={} cached={} name={} categoryId={} minPrice={} maxPrice={} page={} size={} -> rows={} total={} ({}ms)",
+                plan, loaded.get() == null, term, categoryId, minPrice, maxPrice, pageable.getPageNumber(), pageable.getPageSize(),
+                products.getNumberOfElements(), products.getTotalElements(), queryTime - startTime);
+
+        return products;
+    }
+
+    /**
+     * {@link #search} plus category and price-bucket facet counts for the same filters.
+     *
+     * Main concept:
+     * - Facets are counted by {@link CatalogSnapshot} in a single in-memory pass over the matching
+     *   set, so they add no database round trips. Text matching uses {@link ProductTextIndex}.
+     * - `priceBuckets` are ascending boundaries; n boundaries give n + 1 buckets, the last open-ended.
+     * - Facets are empty while the in-memory structures are still being built at startup.
+     */
+    public ProductSearchResponse searchWithFacets(String name, Long categoryId, BigDecimal minPrice,
+            BigDecimal maxPrice, List<BigDecimal> priceBuckets, Pageable pageable) {
+        Page<ProductResponse> results = search(name, categoryId, minPrice, maxPrice, pageable);
+
+        long startTime = System.currentTimeMillis();
+        String term = searchTerm(name);
+        BigDecimal[] bounds = (priceBuckets == null || priceBuckets.isEmpty())
+                ? defaultPriceBuckets
+                : bucketBounds(priceBuckets);
+        if (!catalogSnapshot.isReady()) {
+            log.info("Facets skipped: in-memory catalog not ready");
+            return ProductSearchResponse.builder()
+                    .results(results)
+                    .categoryFacets(List.of())
+                    .priceFacets(List.of())
+                    .build();
+        }
+
+        // a bucket starts at its boundary, so boundaries round up like a lower price bound
+        long[] boundCents = Arrays.stream(bounds).mapToLong(CatalogSnapshot::minCents).toArray();
+        CatalogSnapshot.FacetCounts counts = catalogSnapshot.facets(
+                term != null ? productTextIndex.search(term) : null,
+                categoryId,
+                CatalogSnapshot.minCents(minPrice),
+                CatalogSnapshot.maxCents(maxPrice),
+                boundCents);
+
+        List<CategoryFacetResponse> categoryFacets = new ArrayList<>();
+        for (int slot = 0; slot < counts.categorySlots(); slot++) {
+            if (counts.categoryCount(slot) > 0) {
+                categoryFacets.add(CategoryFacetResponse.builder()
+                        .categoryId(counts.categoryId(slot))
+                        .name(counts.categoryName(slot))
+                        .count(counts.categoryCount(slot))
+                        .build());
+            }
+        }
+        categoryFacets.sort(Comparator.comparingLong(CategoryFacetResponse::getCount).reversed());
+
+        List<PriceBucketFacetResponse> priceFacets = new ArrayList<>();
+        int[] bucketCounts = counts.bucketCounts();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            priceFacets.add(PriceBucketFacetResponse.builder()
+                    .from(i == 0 ? BigDecimal.ZERO : bounds[i - 1])
+                    .to(i < bounds.length ? bounds[i] : null)
+                    .count(bucketCounts[i])
+                    .build());
+        }
+        log.info("Facets computed: {} categories, {} price buckets ({}ms)",
+                categoryFacets.size(), priceFacets.size(), System.currentTimeMillis() - startTime);
+
+        return ProductSearchResponse.builder()
+                .results(results)
+                .categoryFacets(categoryFacets)
+                .priceFacets(priceFacets)
+                .build();
+    }
+
+    /* ascending bucket boundaries, one per value in cents (10, 10.00 and 10.001 are one boundary) */
+    private static BigDecimal[] bucketBounds(List<BigDecimal> priceBuckets) {
+        List<BigDecimal> sorted = new ArrayList<>(priceBuckets);
+        sorted.sort(Comparator.naturalOrder());
+        List<BigDecimal> bounds = new ArrayList<>(sorted.size());
+        long previousCents = 0;
+        for (BigDecimal bound : sorted) {
+            long cents = CatalogSnapshot.minCents(bound);
+            if (bounds.isEmpty() || cents != previousCents) {
+                bounds.add(bound);
+                previousCents = cents;
+            }
+        }
+        return bounds.toArray(new BigDecimal[0]);
+    }
+
+    /**
+     * Count-free variant of {@link #search} for infinite-scroll style clients.
+     *
+     * Main concept:
+     * - Reads one row more than the page size to compute `hasNext`; no COUNT query runs.
+     * - When `includeTotal` is set, adds an approximate total from {@link ProductCountCache}.
+     * - With a `name`, the page comes from {@link #search} so names match exactly as there (text
+     *   index, same sorts, same 503 before the index is built); the total is then exact.
+     */
+    public SliceResponse<ProductResponse> searchSlice(String name, Long categoryId, BigDecimal minPrice,
+            BigDecimal maxPrice, Pageable pageable, boolean includeTotal) {
+        if (searchTerm(name) != null) {
+            Page<ProductResponse> page = search(name, categoryId, minPrice, maxPrice, pageable);
+            return SliceResponse.<ProductResponse>builder()
+                    .content(page.getContent())
+                    .page(page.getNumber())
+                    .size(page.getSize())
+                    .hasNext(page.hasNext())
+                    .approximateTotal(includeTotal ? page.getTotalElements() : null)
+                    .build();
+        }
+        long startTime = System.currentTimeMillis();
+        Slice<ProductResponse> slice = productRepository.sliceWithCategory(categoryId, minPrice, maxPrice, pageable);
+        Long total = includeTotal ? productCountCache.approximateCount(categoryId, minPrice, maxPrice) : null;
+        log.info("Slice search categoryId={} minPrice={} maxPrice={} page={} size={} -> rows={} hasNext={} ({}ms)",
+                categoryId, minPrice, maxPrice, pageable.getPageNumber(), pageable.getPageSize(),
+                slice.getNumberOfElements(), slice.hasNext(), System.currentTimeMillis() - startTime);
+
+        return SliceResponse.<ProductResponse>builder()
+                .content(slice.getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .approximateTotal(total)
+                .build();
+    }
+
+    /**
+     * Keyset (cursor) paginated variant of {@link #search}.
+     *
+     * Main concept:
+     * - Each page seeks past the (sort key, id) of the previous page's last row, so the cost of a
+     *   page does not depend on how deep it is, and no COUNT query is issued.
+     * - Reads `size + 1` rows to learn whether another page exists.
+     * - With a `name`, names match on {@link ProductTextIndex} as in {@link #search} (503 before
+     *   it is built) and the seek runs on {@link CatalogSnapshot}; only the page is hydrated.
+     *
+     * Supported sorts: id ascending (default) or descending, price ascending or descending.
+     */
+    public CursorPageResponse<ProductResponse> searchByCursor(String name, Long categoryId, BigDecimal minPrice,
+            BigDecimal maxPrice, String cursor, Pageable pageable) {
+        long startTime = System.currentTimeMillis();
+        String term = searchTerm(name);
+        ProductCursor.Order order = ProductCursor.Order.from(pageable.getSort());
+        ProductCursor after = ProductCursor.decode(cursor, order);
+        int size = pageable.isPaged() ? pageable.getPageSize() : 20;
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<ProductResponse> rows;
+        if (term != null) {
+            if (!catalogSnapshot.isReady() || !productTextIndex.isReady()) {
+                throw new SearchUnavailableException("Product search index is being built", SEARCH_RETRY_AFTER_SECONDS);
+            }
+            // the cursor price bounds the page like a filter: from below ascending, from above descending
+            long afterCents = order.isDescending()
+                    ? CatalogSnapshot.maxCents(after.getPrice())
+                    : CatalogSnapshot.minCents(after.getPrice());
+            long[] ids = catalogSnapshot.seek(productTextIndex.search(term), categoryId,
+                    CatalogSnapshot.minCents(minPrice),
+                    CatalogSnapshot.maxCents(maxPrice),
+                    order.sortKey(), order.isDescending(),
+                    afterCents, after.getId(), size + 1);
+            rows = findResponsesInOrder(Arrays.stream(ids).boxed().collect(Collectors.toList()));
+        } else {
+            rows = switch (order) {
+                case ID_ASC -> productRepository.seekById(after.getId(), categoryId, minPrice, maxPrice, limit);
+                case ID_DESC -> productRepository.seekByIdDesc(after.getId(), categoryId, minPrice, maxPrice, limit);
+                case PRICE_ASC -> productRepository.seekByPriceAsc(after.getPrice(), after.getId(),
+                        categoryId, minPrice, maxPrice, limit);
+                case PRICE_DESC -> productRepository.seekByPriceDesc(after.getPrice(), after.getId(),
+                        categoryId, minPrice, maxPrice, limit);
+            };
+        }
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            ProductResponse last = rows.get(size - 1);
+            nextCursor = ProductCursor.after(order, last.getPrice(), last.getId()).encode();
+        }
+        log.info("Cursor search order={} name={} categoryId={} minPrice={} maxPrice={} size={} -> rows={} more={} ({}ms)",
+                order, term, categoryId, minPrice, maxPrice, size, rows.size(), nextCursor != null,
+                System.currentTimeMillis() - startTime);
+
+        return CursorPageResponse.<ProductResponse>builder()
+                .items(rows)
+                .nextCursor(nextCursor)
+                .size(size)
+                .build();
+    }
+
+    /**
+     * Typeahead completions from {@link ProductSuggestIndex}, best-selling first.
+     * Returns an empty list while the index is still being built at startup.
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return productSuggestIndex.suggest(prefix, Math.min(limit, productSuggestIndex.getMaxResults()));
+    }
+
+    /**
+     * Products most often bought together with the given product, from {@link CoPurchaseIndex}.
+     * Names and prices come from {@link CatalogSnapshot}, so no query is issued; deleted neighbors
+     * are skipped. Returns an empty list while either structure is still being built at startup.
+     */
+    public List<RelatedProductResponse> findRelated(Long id, int limit) {
+        if (!coPurchaseIndex.isReady() || !catalogSnapshot.isReady()) {
+            return List.of();
+        }
+        if (catalogSnapshot.rows(new long[] { id }).size() == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        int max = Math.min(limit, coPurchaseIndex.getMaxResults());
+        // ask for every tracked neighbor so deleted ones can be dropped without coming up short
+        CoPurchaseIndex.Neighbors neighbors = coPurchaseIndex.related(id, Integer.MAX_VALUE);
+        CatalogSnapshot.Rows rows = catalogSnapshot.rows(neighbors.ids());
+
+        // rows keep the neighbor order, minus unknown ids
+        List<RelatedProductResponse> related = new ArrayList<>(Math.min(max, rows.size()));
+        long[] neighborIds = neighbors.ids();
+        int n = 0;
+        for (int i = 0; i < rows.size() && related.size() < max; i++) {
+            while (neighborIds[n] != rows.id(i)) {
+                n++;
+            }
+            related.add(RelatedProductResponse.builder()
+                    .id(rows.id(i))
+                    .name(rows.name(i))
+                    .price(BigDecimal.valueOf(rows.priceCents(i), 2))
+                    .categoryId(rows.categoryId(i))
+                    .score(neighbors.counts()[n])
+                    .build());
+        }
+        return related;
+    }
+
+    /**
+     * Typo-tolerant variant of {@link #search}: name words are matched by {@link ProductFuzzyIndex}
+     * within a small edit distance, then filtered, sorted and paged on {@link CatalogSnapshot}.
+     *
+     * Without an explicit sort, results are ordered by closeness of the match. Falls back to the
+     * regular search when there is no name or the in-memory structures are still being built.
+     *
+     * @throws ResponseStatusException 400 if sorting by anything other than a single id, price or name order
+     */
+    public Page<ProductResponse> fuzzySearch(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+            Pageable pageable) {
+        String term = searchTerm(name);
+        if (term == null || !productFuzzyIndex.isReady() || !catalogSnapshot.isReady() || pageable.isUnpaged()) {
+            return search(name, categoryId, minPrice, maxPrice, pageable);
+        }
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(null);
+        if (order != null && (pageable.getSort().stream().count() > 1 || snapshotSortKey(order) == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Fuzzy search can only sort by id, price or name");
+        }
+
+        long startTime = System.currentTimeMillis();
+        long[] matches = productFuzzyIndex.search(term);
+        long matchTime = System.currentTimeMillis();
+        Page<ProductResponse> products = searchSnapshot(matches, categoryId, minPrice, maxPrice, order, pageable);
+
+        log.info("Fuzzy search name={} categoryId={} minPrice={} maxPrice={} -> matches={} rows={} total={} (match {}ms, total {}ms)",
+                term, categoryId, minPrice, maxPrice, matches.length, products.getNumberOfElements(),
+                products.getTotalElements(), matchTime - startTime, System.currentTimeMillis() - startTime);
+        return products;
+    }
+
+    /* filter and sort on the columnar snapshot, hydrating only the requested page */
+    private Page<ProductResponse> searchSnapshot(long[] rankedIds, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+            Sort.Order order, Pageable pageable) {
+        CatalogSnapshot.QueryResult result = catalogSnapshot.query(
+                rankedIds,
+                categoryId,
+                CatalogSnapshot.minCents(minPrice),
+                CatalogSnapshot.maxCents(maxPrice),
+                order != null ? snapshotSortKey(order) : null,
+                order != null && order.isDescending(),
+                pageable.getOffset(),
+                pageable.getPageSize());
+        List<Long> pageIds = Arrays.stream(result.ids()).boxed().collect(Collectors.toList());
+        return new PageImpl<>(findResponsesInOrder(pageIds), pageable, result.total());
+    }
+
+    /* the name filter as queried and cached: trimmed, inner whitespace collapsed, null if blank */
+    private static String searchTerm(String name) {
+        return (name == null || name.isBlank()) ? null : name.trim().replaceAll("\\s+", " ");
+    }
+
+    /* snapshot ordering for a Spring Data sort property, or null if the snapshot cannot sort by it */
+    private static CatalogSnapshot.SortKey snapshotSortKey(Sort.Order order) {
+        return switch (order.getProperty()) {
+            case "id" -> CatalogSnapshot.SortKey.ID;
+            case "price" -> CatalogSnapshot.SortKey.PRICE;
+            case "name" -> CatalogSnapshot.SortKey.NAME;
+            default -> null;
+        };
+    }
+
+    /**
+     * Load the given products as response DTOs, preserving the order of `ids`.
+     * Products in {@link ProductCache} are taken from memory, the rest are loaded in one query.
+     * Ids that no longer exist are skipped.
+     */
+    public List<ProductResponse> findResponsesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductResponse> byId = new HashMap<>(ids.size() * 2);
+        List<Long> toLoad = new ArrayList<>();
+        for (Long id : ids) {
+            ProductResponse cached = productCache.peek(id);
+            if (cached != null) {
+                byId.put(id, cached);
+            } else {
+                toLoad.add(id);
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            for (ProductResponse response : productRepository.findResponsesByIdIn(toLoad)) {
+                byId.put(response.getId(), response);
+            }
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Access paths available to {@link #search}, ordered from most to least selective.
+     */
+    enum SearchPlan {
+        SNAPSHOT,
+        CATEGORY_PRICE,
+        CATEGORY,
+        PRICE,
+        ALL;
+
+        static SearchPlan choose(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice, boolean snapshotUsable) {
+            if (snapshotUsable) {
+                return SNAPSHOT;
+            }
+            boolean priceFilter = minPrice != null || maxPrice != null;
+            if (categoryId != null) {
+                return priceFilter ? CATEGORY_PRICE : CATEGORY;
+            }
+            return priceFilter ? PRICE : ALL;
+        }
     }
 
     /* create a ProductResponse DTO from a Product entity */
@@ -96,6 +614,7 @@ public class ProductService {
                 /* set name on response */ .name(product.getName())
                 /* set description on response */ .description(product.getDescription())
                 /* set price on response */ .price(product.getPrice())
+                /* set categoryId on response; handle null category */ .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
                 /* set categoryName on response; handle null category */ .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
                 /* set image url */ .imageUrl(product.getImageUrl())
                 /* build the DTO */ .build();
@@ -122,6 +641,7 @@ public class ProductService {
 
             product.setImageUrl("/uploads/" + filename);
             Product saved = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.updated(saved, categoryIdOf(saved)));
             return toResponse(saved);
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store file", e);
@@ -130,17 +650,29 @@ public class ProductService {
 
     public Product update(Long id, Product product) {
         Product existing = findById(id);
+        Long previousCategoryId = categoryIdOf(existing);
         existing.setName(product.getName());
         existing.setPrice(product.getPrice());
         existing.setDescription(product.getDescription());
         existing.setCategory(product.getCategory());
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(saved, previousCategoryId));
+        return saved;
     }
 
+    /**
+     * Delete a product together with its cart and wishlist rows.
+     *
+     * @throws ResponseStatusException 404 if the product does not exist, 409 if it appears in an order
+     */
     public void delete(Long id) {
-        if (!productRepository.existsById(id)) {
+        if (catalogDeletionService.deleteProducts(List.of(id)).getProductsDeleted() == 0) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
         }
-        productRepository.deleteById(id);
+    }
+
+    /* category id of a product, or null if it has none */
+    static Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
     }
 }
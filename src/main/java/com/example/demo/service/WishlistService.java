@@ -1,9 +1,9 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.User;
-import com.example.demo.entity.Product;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.ProductRepository;
+import com.example.demo.dto.product.ProductResponse;
 import com.example.demo.dto.wishlist.WishlistItemResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +20,7 @@ public class WishlistService {
     
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final ProductService productService;
 
     @Transactional(readOnly = true)
     public List<WishlistItemResponse> getWishlist(Long userId) {
@@ -51,10 +52,10 @@ public class WishlistService {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
+        // Served from the product cache; throws 404 if the product does not exist
+        ProductResponse product = productService.findResponseById(productId);
         
-        user.getWishlist().add(product);
+        user.getWishlist().add(productRepository.getReferenceById(productId));
         userRepository.save(user);
         
         log.info("✅ [WishlistService] Product added to wishlist");
@@ -65,7 +66,7 @@ public class WishlistService {
             .description(product.getDescription())
             .price(product.getPrice())
             .imageUrl(product.getImageUrl())
-            .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
+            .categoryName(product.getCategoryName())
             .build();
     }
 
@@ -0,0 +1,97 @@
+package com.example.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+
+import com.example.demo.event.CatalogChangeBroadcaster;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.event.CategoryChangedEvent;
+import com.example.demo.event.CategoryDeletedEvent;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * Catalog listeners must run in the order {@link CatalogVersion} documents: caches and in-memory
+ * indexes before the version bump, client notifications after it. Checked on the listener
+ * methods of every component, resolving `@Order` the way Spring does, so no context or database
+ * is needed.
+ */
+class CatalogListenerOrderTest {
+
+    private static final Set<Class<?>> CATALOG_EVENTS = Set.of(
+            ProductChangedEvent.class,
+            ProductsDeletedEvent.class,
+            CategoryChangedEvent.class,
+            CategoryDeletedEvent.class,
+            CatalogImportedEvent.class);
+
+    // listeners that tell clients about a change; everything else applies it
+    private static final Set<Class<?>> NOTIFIERS = Set.of(CatalogChangeBroadcaster.class);
+
+    @Test
+    void versionBumpRunsAfterCachesAndIndexesAndBeforeNotifications() throws ClassNotFoundException {
+        List<Method> listeners = catalogListeners();
+        assertFalse(listeners.isEmpty(), "no catalog listeners found");
+
+        for (Method listener : listeners) {
+            Class<?> owner = listener.getDeclaringClass();
+            String name = owner.getSimpleName() + "." + listener.getName();
+            int order = order(listener);
+            if (owner == CatalogVersion.class) {
+                assertEquals(CatalogVersion.BUMP_ORDER, order, name);
+            } else if (NOTIFIERS.contains(owner)) {
+                assertTrue(order > CatalogVersion.BUMP_ORDER, name + " must run after the version bump");
+            } else {
+                assertTrue(order < CatalogVersion.BUMP_ORDER, name + " must run before the version bump");
+            }
+        }
+    }
+
+    @Test
+    void versionIsBumpedForEveryCatalogEvent() throws ClassNotFoundException {
+        Set<Class<?>> bumped = new HashSet<>();
+        for (Method listener : catalogListeners()) {
+            if (listener.getDeclaringClass() == CatalogVersion.class) {
+                bumped.add(listener.getParameterTypes()[0]);
+            }
+        }
+        assertEquals(CATALOG_EVENTS, bumped);
+    }
+
+    private static List<Method> catalogListeners() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(true);
+        List<Method> listeners = new ArrayList<>();
+        for (BeanDefinition component : scanner.findCandidateComponents("com.example.demo")) {
+            Class<?> type = Class.forName(component.getBeanClassName());
+            for (Method method : type.getDeclaredMethods()) {
+                if (AnnotatedElementUtils.hasAnnotation(method, EventListener.class)
+                        && method.getParameterCount() == 1
+                        && CATALOG_EVENTS.contains(method.getParameterTypes()[0])) {
+                    listeners.add(method);
+                }
+            }
+        }
+        return listeners;
+    }
+
+    /* same resolution as Spring's listener adapters: the method's @Order, lowest precedence without one */
+    private static int order(Method listener) {
+        Order order = AnnotatedElementUtils.findMergedAnnotation(listener, Order.class);
+        return order != null ? order.value() : Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.cart;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link CartPricing} against the BigDecimal stream checkout used before it.
+ *
+ * Run `main` (after `mvn test-compile`); add `-prof gc` through the options to compare
+ * allocation per operation. Both variants start from the same cart lines and product prices,
+ * and include the per-line price conversion, so the comparison covers a full cart total;
+ * `cartPricingLoopOnly` prices already converted lines.
+ *
+ * One run with 100 lines: bigDecimalStream ~1.65 us, cartPricing ~1.11 us,
+ * cartPricingLoopOnly ~0.11 us. The conversion to cents is most of the cost of a full total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartPricingBenchmark {
+
+    @Param({"3", "20", "100"})
+    private int lines;
+
+    private final CartPricing cartPricing = new CartPricing();
+
+    private List<Map.Entry<Long, Integer>> cartItems;
+    private Map<Long, BigDecimal> prices;
+    private long[] unitCents;
+    private int[] quantities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        cartItems = new ArrayList<>(lines);
+        prices = new HashMap<>();
+        for (long id = 1; id <= lines; id++) {
+            prices.put(id, BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+            cartItems.add(Map.entry(id, 1 + random.nextInt(5)));
+        }
+        unitCents = new long[lines];
+        quantities = new int[lines];
+        if (BigDecimal.valueOf(cartPricing(), 2).compareTo(bigDecimalStream()) != 0) {
+            throw new IllegalStateException("CartPricing and the BigDecimal total disagree");
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalStream() {
+        return cartItems.stream()
+            .map(item -> prices.get(item.getKey()).multiply(BigDecimal.valueOf(item.getValue())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public long cartPricing() {
+        for (int i = 0; i < cartItems.size(); i++) {
+            Map.Entry<Long, Integer> item = cartItems.get(i);
+            unitCents[i] = CartPricing.toCents(prices.get(item.getKey()));
+            quantities[i] = item.getValue();
+        }
+        return cartPricing.price(unitCents, quantities, cartItems.size()).totalCents();
+    }
+
+    @Benchmark
+    public long cartPricingLoopOnly() {
+        return cartPricing.price(unitCents, quantities, lines).totalCents();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartPricingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.dto.cart.CartItemOperation;
+import com.example.demo.entity.Product;
+import com.example.demo.entity.User;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CartService;
+
+/**
+ * Stress test for concurrent adds to the same cart line: every increment must be counted and the
+ * line must stay a single row. Covers the store's increment upsert written directly (merge) and
+ * through the write-behind flush (adds via CartService), and both at once, and the line cap.
+ */
+@SpringBootTest
+class CartUpsertConcurrencyTest {
+
+    // 1 + 2 * THREADS * ADDS_PER_THREAD stays below the line cap (CartItemOperation.MAX_QUANTITY)
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 60;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(User.builder()
+                .name("Cart stress")
+                .email("cart-stress-" + UUID.randomUUID() + "@example.com")
+                .password("unused")
+                .build()).getId();
+        productId = productRepository.save(Product.builder()
+                .name("Cart stress product")
+                .price(new BigDecimal("9.99"))
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartStore.flush();
+        jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+        productRepository.deleteById(productId);
+        userRepository.deleteById(userId);
+    }
+
+    @Test
+    void concurrentIncrementUpsertsAreNotLost() throws Exception {
+        // each merge is one INCREMENT_SQL batch in its own transaction
+        runConcurrently(() -> cartStore.merge(userId, Map.of(productId, 1)));
+
+        assertEquals(1, rowCount());
+        assertEquals(THREADS * ADDS_PER_THREAD, storedQuantity());
+    }
+
+    @Test
+    void concurrentAddsThroughCartServiceAreNotLost() throws Exception {
+        runConcurrently(() -> cartService.addToCart(userId, productId, 1));
+        cartStore.flush();
+
+        assertEquals(THREADS * ADDS_PER_THREAD, cartStore.getQuantity(userId, productId));
+        assertEquals(1, rowCount());
+        assertEquals(THREADS * ADDS_PER_THREAD, storedQuantity());
+    }
+
+    @Test
+    void incrementsFromAnotherWriterAreKept() throws Exception {
+        // merges write straight to the table while adds are buffered for the flusher
+        cartService.addToCart(userId, productId, 1);
+        runConcurrently(() -> {
+            cartStore.merge(userId, Map.of(productId, 1));
+            cartStore.add(userId, productId, 1);
+        });
+        cartStore.flush();
+
+        assertEquals(1 + 2 * THREADS * ADDS_PER_THREAD, cartStore.getQuantity(userId, productId));
+        assertEquals(1, rowCount());
+        assertEquals(1 + 2 * THREADS * ADDS_PER_THREAD, storedQuantity());
+    }
+
+    @Test
+    void concurrentIncrementsStopAtTheLineCap() throws Exception {
+        cartService.addToCart(userId, productId, CartItemOperation.MAX_QUANTITY - 10);
+        cartStore.flush();
+        runConcurrently(() -> {
+            cartStore.merge(userId, Map.of(productId, 1));
+            cartStore.add(userId, productId, 1);
+        });
+        cartStore.flush();
+
+        assertEquals(CartItemOperation.MAX_QUANTITY, cartStore.getQuantity(userId, productId));
+        assertEquals(CartItemOperation.MAX_QUANTITY, storedQuantity());
+    }
+
+    /* run `add` THREADS * ADDS_PER_THREAD times from THREADS threads released together */
+    private void runConcurrently(Runnable add) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        add.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items WHERE user_id = ? AND product_id = ?", Integer.class, userId, productId);
+    }
+
+    private int storedQuantity() {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM cart_items WHERE user_id = ? AND product_id = ?", Integer.class, userId, productId);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.cart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.event.ProductsDeletedEvent;
+
+/**
+ * {@link GuestCartStore} timing wheel: a cart expires exactly one full turn after its last use,
+ * the least recently used carts go first when the store is full, and deleted products are purged
+ * at the next tick (and filtered out of taken carts before that).
+ */
+class GuestCartStoreTest {
+
+    private static final int SLOTS = 4;
+
+    @Test
+    void idleCartsExpireAfterOneFullTurn() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        store.add("g", 1L, 2);
+
+        advance(store, SLOTS - 1);
+        assertEquals(Map.of(1L, 2), linesWithoutTouching(store, "g", 1L));
+
+        advance(store, 1);
+        assertEquals(0, store.size());
+        assertTrue(store.get("g").isEmpty());
+    }
+
+    @Test
+    void useRestartsTheIdleClock() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        store.add("g", 1L, 1);
+
+        for (int turn = 0; turn < 3 * SLOTS; turn++) {
+            advance(store, SLOTS - 1);
+            // reads, writes and removals all count as use
+            switch (turn % 3) {
+                case 0 -> store.get("g");
+                case 1 -> store.set("g", 2L, 1);
+                default -> store.remove("g", 2L);
+            }
+        }
+        assertEquals(1, store.size());
+
+        advance(store, SLOTS);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void quantityLookupsDoNotCountAsUse() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        store.add("g", 1L, 1);
+
+        advance(store, SLOTS - 1);
+        assertEquals(1, store.getQuantity("g", 1L));
+        advance(store, 1);
+
+        assertNull(store.getQuantity("g", 1L));
+    }
+
+    @Test
+    void cartsAreSpreadOverTheWheelByLastUse() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        for (int i = 0; i < SLOTS; i++) {
+            if (i > 0) {
+                store.advance();
+            }
+            store.add("g" + i, 1L, 1);
+        }
+
+        // one cart per tick expires, in the order they were last used
+        for (int i = 0; i < SLOTS; i++) {
+            assertEquals(SLOTS - i, store.size());
+            assertEquals(1, store.getQuantity("g" + i, 1L));
+            store.advance();
+            assertNull(store.getQuantity("g" + i, 1L));
+        }
+    }
+
+    @Test
+    void fullStoreEvictsTheLeastRecentlyUsedCarts() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 3);
+        store.add("a", 1L, 1);
+        store.advance();
+        store.add("b", 1L, 1);
+        store.add("c", 1L, 1);
+
+        store.add("d", 1L, 1);
+        assertEquals(3, store.size());
+        assertNull(store.getQuantity("a", 1L));
+
+        // within one bucket, the cart that entered it first goes first
+        store.add("e", 1L, 1);
+        assertNull(store.getQuantity("b", 1L));
+        assertEquals(1, store.getQuantity("c", 1L));
+        assertEquals(1, store.getQuantity("d", 1L));
+        assertEquals(1, store.getQuantity("e", 1L));
+    }
+
+    @Test
+    void takenCartsLeaveTheWheel() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        store.add("g", 1L, 3);
+
+        assertEquals(Map.of(1L, 3), store.take("g"));
+        assertTrue(store.take("g").isEmpty());
+        assertEquals(0, store.size());
+
+        // a restored cart starts a fresh turn
+        advance(store, SLOTS - 1);
+        store.restore("g", Map.of(1L, 3));
+        advance(store, SLOTS - 1);
+        assertEquals(3, store.getQuantity("g", 1L));
+        advance(store, 1);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void deletedProductsArePurgedAtTheNextTick() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        store.add("a", 1L, 1);
+        store.add("a", 2L, 1);
+        store.add("b", 1L, 1);
+        store.add("b", 2L, 1);
+
+        store.onProductsDeleted(new ProductsDeletedEvent(List.of(1L), Map.of()));
+        assertEquals(Map.of(2L, 1), store.take("a"));
+        assertEquals(1, store.getQuantity("b", 1L));
+
+        store.advance();
+        assertNull(store.getQuantity("b", 1L));
+        assertEquals(Map.of(2L, 1), store.get("b"));
+    }
+
+    @Test
+    void quantitiesStopAtTheLineCap() {
+        GuestCartStore store = new GuestCartStore(SLOTS, 100);
+        store.add("g", 1L, CartQuantities.MAX - 1);
+
+        assertEquals(CartQuantities.MAX, store.add("g", 1L, 5));
+        store.restore("g", Map.of(1L, 5));
+        assertEquals(CartQuantities.MAX, store.getQuantity("g", 1L));
+    }
+
+    private static void advance(GuestCartStore store, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            store.advance();
+        }
+    }
+
+    /* the cart's lines as seen by getQuantity, which does not move the cart on the wheel */
+    private static Map<Long, Integer> linesWithoutTouching(GuestCartStore store, String guestId, Long productId) {
+        Integer quantity = store.getQuantity(guestId, productId);
+        return quantity == null ? Map.of() : Map.of(productId, quantity);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.SpringBootEcommerceApplication;
+import com.example.demo.dto.product.ProductResponse;
+import com.example.demo.service.ProductService;
+
+/**
+ * Catalog reads through `SELECT new ProductResponse(...)` constructor expressions against the
+ * entity path they replaced (`findAll` / `findAllById` + {@link ProductService#toResponse}).
+ *
+ * Needs the database configured in application.properties, with products in it; the Spring
+ * context is started once per fork, without the web server. Run `main` (after
+ * `mvn test-compile`); add `-prof gc` through the options to compare allocation per operation.
+ * Both paths run in a read-only transaction, as in the service, and must return the same DTOs
+ * (checked in setup).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductResponseQueryBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductService productService;
+    private TransactionTemplate readOnlyTransaction;
+    private Pageable page;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBootEcommerceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        productRepository = context.getBean(ProductRepository.class);
+        productService = context.getBean(ProductService.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        page = PageRequest.of(0, pageSize, Sort.by("id"));
+        List<ProductResponse> projected = projectionPage();
+        if (projected.size() < pageSize) {
+            throw new IllegalStateException("Needs at least " + pageSize + " products, found " + projected.size());
+        }
+        if (!projected.equals(entityPage())) {
+            throw new IllegalStateException("Projection and entity mapping disagree");
+        }
+        ids = projected.stream().map(ProductResponse::getId).collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> entityPage() {
+        return readOnlyTransaction.execute(status ->
+                productRepository.findAll(page).map(productService::toResponse).getContent());
+    }
+
+    @Benchmark
+    public List<ProductResponse> projectionPage() {
+        return readOnlyTransaction.execute(status -> productRepository.findAllResponses(page).getContent());
+    }
+
+    @Benchmark
+    public List<ProductResponse> entityByIds() {
+        return readOnlyTransaction.execute(status -> productRepository.findAllById(ids).stream()
+                .map(productService::toResponse)
+                .sorted(Comparator.comparing(ProductResponse::getId))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<ProductResponse> projectionByIds() {
+        return readOnlyTransaction.execute(status -> productRepository.findResponsesByIdIn(ids).stream()
+                .sorted(Comparator.comparing(ProductResponse::getId))
+                .collect(Collectors.toList()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductResponseQueryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
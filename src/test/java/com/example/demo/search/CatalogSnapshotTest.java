@@ -0,0 +1,320 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Product;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * {@link CatalogSnapshot} against a brute-force model of the same catalog: every combination of
+ * sort, direction, category and price filter and text match is answered by filtering and
+ * sorting the model, after the initial build, after live changes (including products arriving
+ * out of id order) and after compaction.
+ */
+class CatalogSnapshotTest {
+
+    private static final Long[] CATEGORY_IDS = {null, 10L, 20L, 30L};
+    // few distinct names and prices, so sorts have to break ties by id
+    private static final String[] NAMES = {"apple", "Apple", "banana", "Cherry", "cherry pie", "date"};
+    private static final long UNKNOWN_CATEGORY = 99L;
+    private static final long INITIAL_PRODUCTS = 2_100;
+
+    private final Random random = new Random(42);
+    private final Map<Long, Row> model = new TreeMap<>();
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        List<ProductRepository.ProductSnapshotView> rows = new ArrayList<>();
+        // even ids only, so products created later can land between them
+        for (long id = 2; id <= 2 * INITIAL_PRODUCTS; id += 2) {
+            Row row = randomRow(id);
+            model.put(id, row);
+            rows.add(row);
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSnapshotViews()).thenReturn(rows);
+        snapshot = new CatalogSnapshot(productRepository);
+        snapshot.rebuild();
+    }
+
+    @Test
+    void queriesMatchTheModelAfterTheBuild() {
+        assertQueriesMatchModel();
+    }
+
+    @Test
+    void queriesMatchTheModelAfterChanges() {
+        List<Long> ids = new ArrayList<>(model.keySet());
+        for (int i = 0; i < 200; i++) {
+            save(randomRow(ids.get(random.nextInt(ids.size()))));
+        }
+        // odd ids arrive out of id order
+        for (int i = 0; i < 100; i++) {
+            save(randomRow(2L * random.nextInt((int) INITIAL_PRODUCTS) + 1));
+        }
+        delete(randomIds(150));
+
+        assertQueriesMatchModel();
+    }
+
+    @Test
+    void queriesMatchTheModelAfterCompaction() {
+        // more dead ordinals than live ones, and above the compaction minimum
+        delete(randomIds(1_500));
+        save(randomRow(2 * INITIAL_PRODUCTS + 2));
+        save(randomRow(3));
+
+        assertQueriesMatchModel();
+    }
+
+    @Test
+    void seekPagesThroughTheSameRowsAsTheModel() {
+        delete(randomIds(100));
+        save(randomRow(5));
+        for (CatalogSnapshot.SortKey sort : List.of(CatalogSnapshot.SortKey.ID, CatalogSnapshot.SortKey.PRICE)) {
+            for (boolean descending : new boolean[] {false, true}) {
+                for (Long categoryId : CATEGORY_IDS) {
+                    for (long[] matching : Arrays.asList(null, randomIds(300))) {
+                        List<Long> expected = expected(matching, categoryId, 2_000, 8_000, sort, descending);
+                        assertEquals(expected, seekAll(matching, categoryId, 2_000, 8_000, sort, descending),
+                                "seek " + sort + (descending ? " desc" : "") + " category " + categoryId);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void facetsMatchTheModel() {
+        delete(randomIds(100));
+        long[] bounds = {1_000, 2_500, 5_000, 9_000};
+        List<Long> categories = new ArrayList<>(Arrays.asList(CATEGORY_IDS));
+        categories.add(UNKNOWN_CATEGORY);
+        for (Long categoryId : categories) {
+            for (long[] matching : Arrays.asList(null, randomIds(500))) {
+                CatalogSnapshot.FacetCounts counts = snapshot.facets(matching, categoryId, 2_000, 8_000, bounds);
+
+                Map<Long, Integer> categoryCounts = new HashMap<>();
+                for (int slot = 0; slot < counts.categorySlots(); slot++) {
+                    if (counts.categoryCount(slot) > 0) {
+                        categoryCounts.put(counts.categoryId(slot), counts.categoryCount(slot));
+                    }
+                }
+                // category counts ignore the category filter, bucket counts ignore the price filter
+                Map<Long, Integer> expectedCategories = new HashMap<>();
+                int[] expectedBuckets = new int[bounds.length + 1];
+                for (Row row : candidates(matching)) {
+                    if (row.cents >= 2_000 && row.cents <= 8_000) {
+                        expectedCategories.merge(row.categoryId, 1, Integer::sum);
+                    }
+                    if (categoryId == null || categoryId.equals(row.categoryId)) {
+                        int bucket = 0;
+                        while (bucket < bounds.length && bounds[bucket] <= row.cents) {
+                            bucket++;
+                        }
+                        expectedBuckets[bucket]++;
+                    }
+                }
+                assertEquals(expectedCategories, categoryCounts, "categories for " + categoryId);
+                assertArrayEquals(expectedBuckets, counts.bucketCounts(), "buckets for " + categoryId);
+            }
+        }
+    }
+
+    @Test
+    void filterBoundsRoundInwardAndClamp() {
+        assertEquals(Long.MIN_VALUE, CatalogSnapshot.minCents(null));
+        assertEquals(Long.MAX_VALUE, CatalogSnapshot.maxCents(null));
+        assertEquals(1000, CatalogSnapshot.minCents(new BigDecimal("10.00")));
+        assertEquals(1000, CatalogSnapshot.maxCents(new BigDecimal("10")));
+        assertEquals(1001, CatalogSnapshot.minCents(new BigDecimal("10.001")));
+        assertEquals(1000, CatalogSnapshot.maxCents(new BigDecimal("10.009")));
+        assertEquals(0, CatalogSnapshot.minCents(new BigDecimal("-0.001")));
+        assertEquals(-1, CatalogSnapshot.maxCents(new BigDecimal("-0.001")));
+        assertEquals(1, CatalogSnapshot.minCents(new BigDecimal("1E-1000000000")));
+        assertEquals(0, CatalogSnapshot.maxCents(new BigDecimal("1E-1000000000")));
+        assertEquals(Long.MAX_VALUE, CatalogSnapshot.minCents(new BigDecimal("1E+30")));
+        assertEquals(Long.MAX_VALUE, CatalogSnapshot.maxCents(new BigDecimal("1E+30")));
+        assertEquals(Long.MIN_VALUE, CatalogSnapshot.minCents(new BigDecimal("-1E+30")));
+        assertEquals(Long.MIN_VALUE, CatalogSnapshot.maxCents(new BigDecimal("-1E+30")));
+    }
+
+    private void assertQueriesMatchModel() {
+        List<Long> categories = new ArrayList<>(Arrays.asList(CATEGORY_IDS));
+        categories.add(UNKNOWN_CATEGORY);
+        long[][] priceRanges = {{Long.MIN_VALUE, Long.MAX_VALUE}, {2_000, 5_000}, {5_000, 4_999}};
+        List<CatalogSnapshot.SortKey> sorts = new ArrayList<>(Arrays.asList(CatalogSnapshot.SortKey.values()));
+        sorts.add(null);
+        long[] ranked = randomIds(400);
+
+        for (CatalogSnapshot.SortKey sort : sorts) {
+            for (boolean descending : new boolean[] {false, true}) {
+                for (Long categoryId : categories) {
+                    for (long[] range : priceRanges) {
+                        for (long[] rankedIds : Arrays.asList(null, ranked)) {
+                            List<Long> expected = expected(rankedIds, categoryId, range[0], range[1], sort, descending);
+                            String query = "sort " + sort + (descending ? " desc" : "") + " category " + categoryId
+                                    + " price " + range[0] + ".." + range[1] + (rankedIds != null ? " ranked" : "");
+                            for (int offset : new int[] {0, 17}) {
+                                CatalogSnapshot.QueryResult result = snapshot.query(rankedIds, categoryId,
+                                        range[0], range[1], sort, descending, offset, 25);
+                                List<Long> page = expected.subList(Math.min(offset, expected.size()),
+                                        Math.min(offset + 25, expected.size()));
+                                assertEquals(page, boxed(result.ids()), query + " offset " + offset);
+                                assertEquals(expected.size(), result.total(), query);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /* the model's answer: ranked order without a sort, otherwise sorted with ties by id */
+    private List<Long> expected(long[] rankedIds, Long categoryId, long minCents, long maxCents,
+            CatalogSnapshot.SortKey sort, boolean descending) {
+        if (rankedIds == null && sort == null) {
+            sort = CatalogSnapshot.SortKey.ID;
+        }
+        List<Row> rows = candidates(rankedIds).stream()
+                .filter(row -> categoryId == null || categoryId.equals(row.categoryId))
+                .filter(row -> row.cents >= minCents && row.cents <= maxCents)
+                .collect(Collectors.toList());
+        if (sort != null) {
+            Comparator<Row> order = switch (sort) {
+                case ID -> Comparator.comparingLong(row -> row.id);
+                case PRICE -> Comparator.<Row>comparingLong(row -> row.cents).thenComparingLong(row -> row.id);
+                case NAME -> Comparator.<Row, String>comparing(row -> row.name, String.CASE_INSENSITIVE_ORDER)
+                        .thenComparingLong(row -> row.id);
+            };
+            rows.sort(descending ? order.reversed() : order);
+        }
+        return rows.stream().map(row -> row.id).collect(Collectors.toList());
+    }
+
+    /* model rows for the given ids in their order (unknown ids skipped), or all rows in id order */
+    private List<Row> candidates(long[] ids) {
+        if (ids == null) {
+            return new ArrayList<>(model.values());
+        }
+        return Arrays.stream(ids).mapToObj(model::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private List<Long> seekAll(long[] matching, Long categoryId, long minCents, long maxCents,
+            CatalogSnapshot.SortKey sort, boolean descending) {
+        List<Long> all = new ArrayList<>();
+        long afterCents = descending ? Long.MAX_VALUE : Long.MIN_VALUE;
+        long afterId = descending ? Long.MAX_VALUE : 0;
+        while (true) {
+            long[] page = snapshot.seek(matching, categoryId, minCents, maxCents, sort, descending, afterCents, afterId, 7);
+            all.addAll(boxed(page));
+            if (page.length < 7) {
+                return all;
+            }
+            afterId = page[page.length - 1];
+            afterCents = model.get(afterId).cents;
+        }
+    }
+
+    /* `count` distinct live ids in random order, plus one unknown id */
+    private long[] randomIds(int count) {
+        List<Long> ids = new ArrayList<>(model.keySet());
+        Collections.shuffle(ids, random);
+        long[] picked = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            picked[i] = ids.get(i);
+        }
+        picked[count] = 1_000_000;
+        return picked;
+    }
+
+    private Row randomRow(long id) {
+        return new Row(id, NAMES[random.nextInt(NAMES.length)], 100L * (1 + random.nextInt(100)),
+                CATEGORY_IDS[random.nextInt(CATEGORY_IDS.length)]);
+    }
+
+    private void save(Row row) {
+        model.put(row.id, row);
+        Category category = row.categoryId == null ? null
+                : Category.builder().id(row.categoryId).name(row.getCategoryName()).build();
+        snapshot.onProductChanged(ProductChangedEvent.created(Product.builder()
+                .id(row.id)
+                .name(row.name)
+                .price(row.getPrice())
+                .category(category)
+                .build()));
+    }
+
+    private void delete(long[] ids) {
+        List<Long> deleted = boxed(ids);
+        deleted.forEach(model::remove);
+        snapshot.onProductsDeleted(new ProductsDeletedEvent(deleted, Map.of()));
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    private static final class Row implements ProductRepository.ProductSnapshotView {
+
+        private final long id;
+        private final String name;
+        private final long cents;
+        private final Long categoryId;
+
+        Row(long id, String name, long cents, Long categoryId) {
+            this.id = id;
+            this.name = name;
+            this.cents = cents;
+            this.categoryId = categoryId;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return BigDecimal.valueOf(cents, 2);
+        }
+
+        @Override
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public String getCategoryName() {
+            return categoryId == null ? null : "Category " + categoryId;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link LongIntHashMap} against a `HashMap` model, including resizes and the backward-shift
+ * deletion over long probe chains.
+ */
+class LongIntHashMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(7, 70);
+        map.put(8, 80);
+        map.put(7, 71);
+
+        assertEquals(2, map.size());
+        assertEquals(71, map.get(7, -1));
+        assertEquals(80, map.get(8, -1));
+        assertEquals(-1, map.get(9, -1));
+
+        assertEquals(71, map.remove(7, -1));
+        assertEquals(-1, map.remove(7, -1));
+        assertEquals(-1, map.get(7, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keyZeroIsReserved() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+        assertEquals(-1, map.get(0, -1));
+        assertEquals(-1, map.remove(0, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void growsPastItsExpectedSize() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int i = 1; i <= 10_000; i++) {
+            map.put(i * 31L, i);
+        }
+
+        assertEquals(10_000, map.size());
+        for (int i = 1; i <= 10_000; i++) {
+            assertEquals(i, map.get(i * 31L, -1));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1, 1);
+        map.put(2, 2);
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertEquals(-1, map.get(1, -1));
+        map.put(1, 3);
+        assertEquals(3, map.get(1, -1));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(7);
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> model = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            // a small key range keeps probe chains long and removals frequent
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Integer expected = model.remove(key);
+                assertEquals(expected != null ? expected : -1, map.remove(key, -1));
+            } else {
+                int value = random.nextInt();
+                model.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertEquals(model.size(), map.size());
+        for (long key = 1; key <= 2_000; key++) {
+            Integer expected = model.get(key);
+            assertEquals(expected != null ? expected : -1, map.get(key, -1), "key " + key);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.search;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.entity.Product;
+import com.example.demo.event.ProductChangedEvent;
+
+/**
+ * Query latency of {@link ProductFuzzyIndex} on a large catalog.
+ *
+ * Run `main` (after `mvn test-compile`); add `-prof gc` through the options to see allocation per
+ * query. Product names combine words from a shared vocabulary with a per-product model code, so
+ * the dictionary grows with the catalog (about one word per product) the way SKU-style names do.
+ * Queries are vocabulary words with one typo, i.e. the path that needs trigram candidates and
+ * distance verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductFuzzyIndexBenchmark {
+
+    private static final int VOCABULARY = 5_000;
+    private static final int QUERIES = 256;
+
+    @Param({"500000"})
+    private int products;
+
+    private ProductFuzzyIndex index;
+    private String[] oneTokenQueries;
+    private String[] twoTokenQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 5 + random.nextInt(6));
+        }
+
+        // no repository: the index is filled through the same events that follow live changes
+        index = new ProductFuzzyIndex(null);
+        for (long id = 1; id <= products; id++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + randomWord(random, 3) + id;
+            index.onProductChanged(ProductChangedEvent.created(Product.builder().id(id).name(name).build()));
+        }
+
+        oneTokenQueries = new String[QUERIES];
+        twoTokenQueries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            oneTokenQueries[i] = typo(random, words[random.nextInt(words.length)]);
+            twoTokenQueries[i] = typo(random, words[random.nextInt(words.length)]) + " "
+                    + words[random.nextInt(words.length)];
+        }
+    }
+
+    @Benchmark
+    public long[] oneToken() {
+        return index.search(oneTokenQueries[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public long[] twoTokens() {
+        return index.search(twoTokenQueries[next++ & (QUERIES - 1)]);
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /* replace one inner character, staying within the index's distance for words of 4+ letters */
+    private static String typo(Random random, String word) {
+        char[] chars = word.toCharArray();
+        int at = 1 + random.nextInt(chars.length - 2);
+        chars[at] = (char) ('a' + (chars[at] - 'a' + 1 + random.nextInt(25)) % 26);
+        return new String(chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductFuzzyIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
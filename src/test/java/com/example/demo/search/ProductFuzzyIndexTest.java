@@ -0,0 +1,259 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Product;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * {@link ProductFuzzyIndex} against a brute-force scan: a product matches when every query token
+ * is within {@link ProductFuzzyIndex#maxDistance} edits of some word of its name. Queries are
+ * name words with random typos, so the trigram candidate filter must not lose any true match.
+ */
+class ProductFuzzyIndexTest {
+
+    private static final int VOCABULARY = 40;
+
+    private final Random random = new Random(11);
+    private final Map<Long, String> model = new TreeMap<>();
+    private String[] words;
+    private ProductFuzzyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(2 + random.nextInt(9));
+        }
+        List<ProductRepository.ProductSnapshotView> rows = new ArrayList<>();
+        for (long id = 1; id <= 400; id++) {
+            String name = randomName();
+            model.put(id, name);
+            rows.add(view(id, name));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSnapshotViews()).thenReturn(rows);
+        index = new ProductFuzzyIndex(productRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void matchesEveryTokenWithinTheAllowedDistance() {
+        assertMatchesModel();
+    }
+
+    @Test
+    void followsUpdatesAndDeletions() {
+        for (int i = 0; i < 80; i++) {
+            save(1 + random.nextInt(500), randomName());
+        }
+        delete(List.of(7L));
+        List<Long> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(1L + random.nextInt(500));
+        }
+        delete(batch);
+        for (long id = 501; id <= 550; id++) {
+            save(id, randomName());
+        }
+
+        assertMatchesModel();
+    }
+
+    @Test
+    void closerMatchesRankFirst() {
+        save(1001, "Backpacks");
+        save(1002, "Backpack");
+
+        assertArrayEquals(new long[] {1002, 1001}, index.search("bakpack"));
+    }
+
+    @Test
+    void shortTokensMatchExactly() {
+        save(1001, "Mug");
+        save(1002, "Jug");
+
+        assertArrayEquals(new long[] {1001}, index.search("mug"));
+        assertArrayEquals(new long[0], index.search("mog"));
+    }
+
+    @Test
+    void allowedDistanceGrowsWithTokenLength() {
+        assertEquals(0, ProductFuzzyIndex.maxDistance(3));
+        assertEquals(1, ProductFuzzyIndex.maxDistance(4));
+        assertEquals(1, ProductFuzzyIndex.maxDistance(6));
+        assertEquals(2, ProductFuzzyIndex.maxDistance(7));
+    }
+
+    @Test
+    void boundedDistanceAgreesWithLevenshteinUpToTheBound() {
+        for (int i = 0; i < 5_000; i++) {
+            String a = randomWord(1 + random.nextInt(8));
+            String b = random.nextBoolean() ? typo(a) : randomWord(1 + random.nextInt(8));
+            int bound = random.nextInt(3);
+            int[] previousRow = new int[a.length() + 1];
+            int[] currentRow = new int[a.length() + 1];
+            int expected = Math.min(levenshtein(a, b), bound + 1);
+            assertEquals(expected, Math.min(ProductFuzzyIndex.boundedDistance(a, b, bound, previousRow, currentRow), bound + 1),
+                    a + " / " + b + " within " + bound);
+        }
+    }
+
+    private void assertMatchesModel() {
+        List<String> queries = new ArrayList<>();
+        for (String word : words) {
+            queries.add(word);
+            queries.add(typo(word));
+            queries.add(typo(typo(word)));
+        }
+        for (int i = 0; i < 40; i++) {
+            queries.add(typo(words[random.nextInt(words.length)]) + " " + words[random.nextInt(words.length)]);
+        }
+        queries.add("");
+        for (String query : queries) {
+            long[] hits = index.search(query);
+            Set<Long> found = Arrays.stream(hits).boxed().collect(Collectors.toCollection(TreeSet::new));
+            assertEquals(hits.length, found.size(), "duplicate hits for '" + query + "'");
+            assertEquals(expected(query), found, "'" + query + "'");
+        }
+    }
+
+    private Set<Long> expected(String query) {
+        Set<String> tokens = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        Set<Long> expected = new TreeSet<>();
+        if (tokens.isEmpty()) {
+            return expected;
+        }
+        for (Map.Entry<Long, String> product : model.entrySet()) {
+            List<String> nameWords = TextTokenizer.tokenize(product.getValue());
+            boolean all = tokens.stream().allMatch(token -> nameWords.stream()
+                    .anyMatch(word -> levenshtein(token, word) <= ProductFuzzyIndex.maxDistance(token.length())));
+            if (all) {
+                expected.add(product.getKey());
+            }
+        }
+        return expected;
+    }
+
+    private String randomName() {
+        int count = 1 + random.nextInt(3);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = words[random.nextInt(words.length)];
+            name.append(i == 0 ? word.toUpperCase() : word).append(' ');
+        }
+        return name.toString().trim();
+    }
+
+    private String randomWord(int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // a small alphabet makes words share trigrams
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+
+    /* one random substitution, insertion, deletion or transposition */
+    private String typo(String word) {
+        StringBuilder typo = new StringBuilder(word);
+        int at = random.nextInt(word.length());
+        char c = (char) ('a' + random.nextInt(6));
+        switch (random.nextInt(4)) {
+            case 0 -> typo.setCharAt(at, c);
+            case 1 -> typo.insert(at, c);
+            case 2 -> {
+                if (typo.length() > 1) {
+                    typo.deleteCharAt(at);
+                }
+            }
+            default -> {
+                if (at + 1 < typo.length()) {
+                    typo.setCharAt(at, word.charAt(at + 1));
+                    typo.setCharAt(at + 1, word.charAt(at));
+                }
+            }
+        }
+        return typo.toString();
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private void save(long id, String name) {
+        model.put(id, name);
+        index.onProductChanged(ProductChangedEvent.created(Product.builder()
+                .id(id)
+                .name(name)
+                .price(BigDecimal.ONE)
+                .build()));
+    }
+
+    private void delete(List<Long> ids) {
+        ids.forEach(model::remove);
+        index.onProductsDeleted(new ProductsDeletedEvent(ids, Map.of()));
+    }
+
+    private static ProductRepository.ProductSnapshotView view(long id, String name) {
+        return new ProductRepository.ProductSnapshotView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return BigDecimal.ONE;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return null;
+            }
+
+            @Override
+            public String getCategoryName() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Product;
+import com.example.demo.event.ProductChangedEvent;
+import com.example.demo.event.ProductsDeletedEvent;
+import com.example.demo.repository.ProductRepository;
+
+/**
+ * {@link ProductTextIndex} matching against a brute-force scan of the same products (every
+ * query token must be a prefix of a name or description word), plus the ranking rules: name
+ * over description, exact term over prefix.
+ */
+class ProductTextIndexTest {
+
+    private static final String[] WORDS = {
+        "red", "green", "blue", "wool", "woolen", "cotton", "coat", "cord", "jacket", "jack", "boots", "boot"
+    };
+    private static final String[] QUERIES = {
+        "red", "RED coat", "wool", "woo", "cot", "coat", "jack", "boot", "green boots", "blue woolen jacket",
+        "zebra", "red zebra", "x", ""
+    };
+
+    private final Random random = new Random(3);
+    private final Map<Long, String[]> model = new TreeMap<>();
+    private ProductTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<ProductRepository.ProductTextView> rows = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            String[] text = randomText();
+            model.put(id, text);
+            rows.add(view(id, text[0], text[1]));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllTextViews()).thenReturn(rows);
+        index = new ProductTextIndex(productRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void matchesEveryTokenByPrefix() {
+        assertMatchesModel();
+    }
+
+    @Test
+    void followsUpdatesAndDeletions() {
+        for (int i = 0; i < 60; i++) {
+            save(1 + random.nextInt(400), randomText());
+        }
+        delete(List.of(5L));
+        List<Long> batch = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            batch.add(1L + random.nextInt(400));
+        }
+        delete(batch);
+        // ordinals released by the deletions are reused
+        for (long id = 401; id <= 450; id++) {
+            save(id, randomText());
+        }
+
+        assertMatchesModel();
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        save(1001, new String[] {"Plain mug", "A lantern for the garden"});
+        save(1002, new String[] {"Lantern", "Plain"});
+
+        assertArrayEquals(new long[] {1002, 1001}, index.search("lantern"));
+    }
+
+    @Test
+    void exactTermsRankAbovePrefixMatches() {
+        save(1001, new String[] {"Lanterns", null});
+        save(1002, new String[] {"Lantern", null});
+
+        assertArrayEquals(new long[] {1002, 1001}, index.search("lantern"));
+    }
+
+    @Test
+    void replacedNamesNoLongerMatch() {
+        save(1001, new String[] {"Lantern", null});
+        save(1001, new String[] {"Candle", null});
+
+        assertArrayEquals(new long[0], index.search("lantern"));
+        assertArrayEquals(new long[] {1001}, index.search("candle"));
+    }
+
+    private void assertMatchesModel() {
+        for (String query : QUERIES) {
+            long[] hits = index.search(query);
+            Set<Long> found = Arrays.stream(hits).boxed().collect(Collectors.toCollection(TreeSet::new));
+            assertEquals(hits.length, found.size(), "duplicate hits for '" + query + "'");
+            assertEquals(expected(query), found, "'" + query + "'");
+        }
+    }
+
+    private Set<Long> expected(String query) {
+        Set<String> tokens = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        Set<Long> expected = new TreeSet<>();
+        if (tokens.isEmpty()) {
+            return expected;
+        }
+        for (Map.Entry<Long, String[]> product : model.entrySet()) {
+            List<String> words = new ArrayList<>(TextTokenizer.tokenize(product.getValue()[0]));
+            words.addAll(TextTokenizer.tokenize(product.getValue()[1]));
+            boolean all = tokens.stream().allMatch(token -> words.stream().anyMatch(word -> word.startsWith(token)));
+            if (all) {
+                expected.add(product.getKey());
+            }
+        }
+        return expected;
+    }
+
+    /* name and description of up to three random words each; some descriptions are missing */
+    private String[] randomText() {
+        String name = randomWords(1 + random.nextInt(3));
+        return new String[] {name, random.nextInt(4) == 0 ? null : randomWords(random.nextInt(4))};
+    }
+
+    private String randomWords(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            text.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private void save(long id, String[] text) {
+        model.put(id, text);
+        index.onProductChanged(ProductChangedEvent.created(Product.builder()
+                .id(id)
+                .name(text[0])
+                .description(text[1])
+                .build()));
+    }
+
+    private void delete(List<Long> ids) {
+        ids.forEach(model::remove);
+        index.onProductsDeleted(new ProductsDeletedEvent(ids, Map.of()));
+    }
+
+    private static ProductRepository.ProductTextView view(long id, String name, String description) {
+        return new ProductRepository.ProductTextView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.demo.search.CatalogSnapshot;
+
+/**
+ * {@link ProductCursor} tokens: round trips for every ordering, first-page cursors, and 400 for
+ * anything a client could send that was not issued for the requested ordering.
+ */
+class ProductCursorTest {
+
+    private static final String[] PRICES = {"0", "0.00", "10.5", "10.50", "1234.99", "99999999999999999.99"};
+    private static final long[] IDS = {1, 42, Long.MAX_VALUE};
+
+    @Test
+    void tokensRoundTripForEveryOrdering() {
+        for (ProductCursor.Order order : ProductCursor.Order.values()) {
+            for (String price : PRICES) {
+                for (long id : IDS) {
+                    String token = ProductCursor.after(order, new BigDecimal(price), id).encode();
+                    ProductCursor decoded = ProductCursor.decode(token, order);
+
+                    assertEquals(order, decoded.getOrder());
+                    // the exact scale survives, not just the value
+                    assertEquals(new BigDecimal(price), decoded.getPrice());
+                    assertEquals(id, decoded.getId());
+                    assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+                }
+            }
+        }
+    }
+
+    @Test
+    void blankTokensStartBeforeTheFirstRow() {
+        for (String token : new String[] {null, "", "  "}) {
+            assertEquals(0L, ProductCursor.decode(token, ProductCursor.Order.ID_ASC).getId());
+            assertEquals(Long.MAX_VALUE, ProductCursor.decode(token, ProductCursor.Order.ID_DESC).getId());
+
+            ProductCursor priceAsc = ProductCursor.decode(token, ProductCursor.Order.PRICE_ASC);
+            assertTrue(priceAsc.getPrice().compareTo(ProductService.PRICE_FLOOR) < 0);
+            ProductCursor priceDesc = ProductCursor.decode(token, ProductCursor.Order.PRICE_DESC);
+            assertTrue(priceDesc.getPrice().compareTo(ProductService.PRICE_CEILING) > 0);
+            assertEquals(Long.MAX_VALUE, priceDesc.getId());
+        }
+    }
+
+    @Test
+    void tokensForAnotherOrderingAreRejected() {
+        String token = ProductCursor.after(ProductCursor.Order.PRICE_ASC, new BigDecimal("10.00"), 7).encode();
+
+        assertBadRequest(() -> ProductCursor.decode(token, ProductCursor.Order.PRICE_DESC));
+        assertBadRequest(() -> ProductCursor.decode(token, ProductCursor.Order.ID_ASC));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertBadRequest(() -> ProductCursor.decode("not base64!", ProductCursor.Order.ID_ASC));
+        for (String raw : new String[] {"ID_ASC", "ID_ASC:1", "ID_ASC:abc:1", "ID_ASC:1:abc", "NAME_ASC:1:1"}) {
+            String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            assertBadRequest(() -> ProductCursor.decode(token, ProductCursor.Order.ID_ASC));
+        }
+    }
+
+    @Test
+    void ordersFollowTheFirstSortProperty() {
+        assertEquals(ProductCursor.Order.ID_ASC, ProductCursor.Order.from(Sort.unsorted()));
+        assertEquals(ProductCursor.Order.ID_ASC, ProductCursor.Order.from(Sort.by("id")));
+        assertEquals(ProductCursor.Order.ID_DESC, ProductCursor.Order.from(Sort.by(Sort.Direction.DESC, "id")));
+        assertEquals(ProductCursor.Order.PRICE_ASC, ProductCursor.Order.from(Sort.by("price", "id")));
+        assertEquals(ProductCursor.Order.PRICE_DESC, ProductCursor.Order.from(Sort.by(Sort.Direction.DESC, "price")));
+        assertBadRequest(() -> ProductCursor.Order.from(Sort.by("name")));
+
+        assertEquals(CatalogSnapshot.SortKey.ID, ProductCursor.Order.ID_DESC.sortKey());
+        assertEquals(CatalogSnapshot.SortKey.PRICE, ProductCursor.Order.PRICE_ASC.sortKey());
+        assertTrue(ProductCursor.Order.PRICE_DESC.isDescending());
+        assertFalse(ProductCursor.Order.ID_ASC.isDescending());
+    }
+
+    private static void assertBadRequest(Runnable decode) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, decode::run);
+        assertEquals(400, e.getStatusCode().value());
+    }
+}
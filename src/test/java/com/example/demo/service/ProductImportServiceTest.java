@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+import com.example.demo.dto.admin.ProductImportResponse;
+import com.example.demo.entity.Category;
+import com.example.demo.entity.Product;
+import com.example.demo.event.CatalogImportedEvent;
+import com.example.demo.repository.CategoryRepository;
+
+/**
+ * Row parsing and validation of {@link ProductImportService}, with the persistence layer mocked:
+ * CSV quoting (commas, escaped quotes and line breaks inside quoted fields), header handling,
+ * rejected rows, chunking and NDJSON.
+ */
+class ProductImportServiceTest {
+
+    private final List<Product> persisted = new ArrayList<>();
+    private final List<Category> createdCategories = new ArrayList<>();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ProductImportService service;
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(Category.builder().id(1L).name("Lighting").build()));
+
+        EntityManager entityManager = mock(EntityManager.class);
+        doAnswer(invocation -> {
+            Object entity = invocation.getArgument(0);
+            if (entity instanceof Category category) {
+                category.setId(100L + createdCategories.size());
+                createdCategories.add(category);
+            } else {
+                persisted.add((Product) entity);
+            }
+            return null;
+        }).when(entityManager).persist(any());
+        when(entityManager.getReference(eq(Category.class), any())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(1);
+            return id == 1L ? Category.builder().id(1L).name("Lighting").build() : createdCategories.get((int) (id - 100));
+        });
+
+        service = new ProductImportService(categoryRepository, eventPublisher, new ObjectMapper(), transactionManager, 2);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @Test
+    void quotedFieldsMayContainCommasQuotesAndLineBreaks() throws IOException {
+        ProductImportResponse result = importCsv(
+                "name,price,description\n" +
+                "\"Desk, oak\",120.00,\"Solid \"\"oak\"\" desk\n" +
+                "\n" +
+                "with two drawers\"\n" +
+                "Lamp,15.5,\n" +
+                "\"\",1,\"quoted but empty name\"\n");
+
+        assertEquals(3, result.getRowsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals("Desk, oak", persisted.get(0).getName());
+        assertEquals(new BigDecimal("120.00"), persisted.get(0).getPrice());
+        assertEquals("Solid \"oak\" desk\n\nwith two drawers", persisted.get(0).getDescription());
+        assertEquals("Lamp", persisted.get(1).getName());
+        assertNull(persisted.get(1).getDescription());
+        assertEquals(List.of("row 3: name is required"), result.getErrors().subList(0, 1));
+    }
+
+    @Test
+    void crlfLineEndingsAndBlankLinesAreAccepted() throws IOException {
+        ProductImportResponse result = importCsv(
+                "name,price\r\n" +
+                "Mug,4.99\r\n" +
+                "\r\n" +
+                "\"Two-line\r\nmug\",5\r\n");
+
+        assertEquals(2, result.getImported());
+        assertEquals("Mug", persisted.get(0).getName());
+        assertEquals("Two-line\nmug", persisted.get(1).getName());
+    }
+
+    @Test
+    void columnsMayComeInAnyOrderAndUnknownOnesAreIgnored() throws IOException {
+        ProductImportResponse result = importCsv(
+                " price ,sku,category,name\n" +
+                "9.50,X-1,Lighting,Bulb\n" +
+                "3,X-2,Garden,Seeds\n" +
+                "4,X-3,Garden,Spade\n");
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getCategoriesCreated());
+        assertEquals("Bulb", persisted.get(0).getName());
+        assertEquals(new BigDecimal("9.50"), persisted.get(0).getPrice());
+        assertEquals(1L, persisted.get(0).getCategory().getId());
+        // the category created for the second row is reused by the third
+        assertEquals("Garden", persisted.get(2).getCategory().getName());
+        assertEquals(1, createdCategories.size());
+    }
+
+    @Test
+    void invalidRowsAreCountedAndSkipped() throws IOException {
+        ProductImportResponse result = importCsv(
+                "name,price\n" +
+                ",1\n" +
+                "Negative,-1\n" +
+                "Text,abc\n" +
+                "Missing price\n" +
+                "Good,2\n");
+
+        assertEquals(5, result.getRowsRead());
+        assertEquals(1, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(
+                "row 1: name is required",
+                "row 2: price must be a non-negative number",
+                "row 3: invalid price 'abc'",
+                "row 4: price must be a non-negative number"), result.getErrors());
+    }
+
+    @Test
+    void rowsArePersistedInChunks() throws IOException {
+        importCsv("name,price\nA,1\nB,2\nC,3\n");
+
+        assertEquals(3, persisted.size());
+        // chunk size 2: one full chunk and the rest, each in its own transaction
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher).publishEvent(any(CatalogImportedEvent.class));
+    }
+
+    @Test
+    void headerWithoutRequiredColumnsIsRejected() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> importCsv("title,cost\nA,1\n"));
+
+        assertEquals(400, e.getStatusCode().value());
+        assertTrue(persisted.isEmpty());
+        verify(eventPublisher, never()).publishEvent(any(CatalogImportedEvent.class));
+    }
+
+    @Test
+    void ndjsonRowsUseTheSameColumns() throws IOException {
+        ProductImportResponse result = service.importProducts(stream(
+                "{\"name\":\"Kettle\",\"price\":\"29.90\",\"category\":\"Kitchen\"}\n" +
+                "\n" +
+                "{\"name\":\"Pot\",\"price\":12}\n" +
+                "{not json}\n"), ProductImportService.FORMAT_NDJSON);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(new BigDecimal("29.90"), persisted.get(0).getPrice());
+        assertEquals("Kitchen", persisted.get(0).getCategory().getName());
+        assertEquals(new BigDecimal("12"), persisted.get(1).getPrice());
+    }
+
+    private ProductImportResponse importCsv(String csv) throws IOException {
+        return service.importProducts(stream(csv), ProductImportService.FORMAT_CSV);
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}